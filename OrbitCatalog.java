@@ -0,0 +1,222 @@
+/**
+ * Orbit Catalog
+ *
+ * Orbital elements of many objects in primitive arrays (one array for
+ * each element, names in one byte array), loaded by OrbitCatalogLoader.
+ * The elements are those of Comet: time of perihelion passage (JD), e,
+ * q (AU), Peri, Node, Incl (radian) and equinox (year).
+ */
+
+import java.nio.charset.StandardCharsets;
+import astro.*;
+
+public class OrbitCatalog {
+
+	private int nCount = 0;
+	private double fT[];
+	private double fE[];
+	private double fQ[];
+	private double fPeri[];
+	private double fNode[];
+	private double fIncl[];
+	private double fEqnx[];
+
+	/**
+	 * Names in UTF-8, name of object i is from nNameEnd[i-1] to nNameEnd[i]
+	 */
+	private byte nameBytes[];
+	private int  nNameEnd[];
+	private int  nNameBytes = 0;
+
+	/**
+	 * Constructor
+	 */
+	public OrbitCatalog() {
+		this(1024);
+	}
+
+	public OrbitCatalog(int nCapacity) {
+		nCapacity = Math.max(nCapacity, 1);
+		fT    = new double[nCapacity];
+		fE    = new double[nCapacity];
+		fQ    = new double[nCapacity];
+		fPeri = new double[nCapacity];
+		fNode = new double[nCapacity];
+		fIncl = new double[nCapacity];
+		fEqnx = new double[nCapacity];
+		nNameEnd  = new int[nCapacity];
+		nameBytes = new byte[nCapacity * 16];
+	}
+
+	/**
+	 * Make Room for nMore Objects and nMoreBytes of Names
+	 */
+	private void ensureCapacity(int nMore, int nMoreBytes) {
+		if (nCount + nMore > fT.length) {
+			int nNew = Math.max(fT.length * 2, nCount + nMore);
+			fT    = resize(fT,    nNew);
+			fE    = resize(fE,    nNew);
+			fQ    = resize(fQ,    nNew);
+			fPeri = resize(fPeri, nNew);
+			fNode = resize(fNode, nNew);
+			fIncl = resize(fIncl, nNew);
+			fEqnx = resize(fEqnx, nNew);
+			int nNameEndNew[] = new int[nNew];
+			System.arraycopy(nNameEnd, 0, nNameEndNew, 0, nCount);
+			nNameEnd = nNameEndNew;
+		}
+		if (nNameBytes + nMoreBytes > nameBytes.length) {
+			int nNew = Math.max(nameBytes.length * 2, nNameBytes + nMoreBytes);
+			byte nameBytesNew[] = new byte[nNew];
+			System.arraycopy(nameBytes, 0, nameBytesNew, 0, nNameBytes);
+			nameBytes = nameBytesNew;
+		}
+	}
+
+	private double[] resize(double f[], int nNew) {
+		double fNew[] = new double[nNew];
+		System.arraycopy(f, 0, fNew, 0, nCount);
+		return fNew;
+	}
+
+	/**
+	 * Add Object
+	 */
+	public void add(String strName, double fT, double fE, double fQ,
+					double fPeri, double fNode, double fIncl,
+					double fEqnx) {
+		byte name[] = strName.getBytes(StandardCharsets.UTF_8);
+		ensureCapacity(1, name.length);
+		System.arraycopy(name, 0, nameBytes, nNameBytes, name.length);
+		nNameBytes += name.length;
+		nNameEnd[nCount] = nNameBytes;
+		this.fT[nCount]    = fT;
+		this.fE[nCount]    = fE;
+		this.fQ[nCount]    = fQ;
+		this.fPeri[nCount] = fPeri;
+		this.fNode[nCount] = fNode;
+		this.fIncl[nCount] = fIncl;
+		this.fEqnx[nCount] = fEqnx;
+		nCount++;
+	}
+
+	/**
+	 * Add All Objects of Another Catalog
+	 */
+	public void addAll(OrbitCatalog catalog) {
+		int n = catalog.nCount;
+		ensureCapacity(n, catalog.nNameBytes);
+		System.arraycopy(catalog.fT,    0, fT,    nCount, n);
+		System.arraycopy(catalog.fE,    0, fE,    nCount, n);
+		System.arraycopy(catalog.fQ,    0, fQ,    nCount, n);
+		System.arraycopy(catalog.fPeri, 0, fPeri, nCount, n);
+		System.arraycopy(catalog.fNode, 0, fNode, nCount, n);
+		System.arraycopy(catalog.fIncl, 0, fIncl, nCount, n);
+		System.arraycopy(catalog.fEqnx, 0, fEqnx, nCount, n);
+		for (int i = 0; i < n; i++) {
+			nNameEnd[nCount + i] = nNameBytes + catalog.nNameEnd[i];
+		}
+		System.arraycopy(catalog.nameBytes, 0, nameBytes, nNameBytes,
+						 catalog.nNameBytes);
+		nNameBytes += catalog.nNameBytes;
+		nCount += n;
+	}
+
+	/**
+	 * Release Unused Room
+	 */
+	public void trimToSize() {
+		if (fT.length > nCount) {
+			int n = Math.max(nCount, 1);
+			fT    = resize(fT,    n);
+			fE    = resize(fE,    n);
+			fQ    = resize(fQ,    n);
+			fPeri = resize(fPeri, n);
+			fNode = resize(fNode, n);
+			fIncl = resize(fIncl, n);
+			fEqnx = resize(fEqnx, n);
+			int nNameEndNew[] = new int[n];
+			System.arraycopy(nNameEnd, 0, nNameEndNew, 0, nCount);
+			nNameEnd = nNameEndNew;
+		}
+		if (nameBytes.length > nNameBytes) {
+			byte nameBytesNew[] = new byte[nNameBytes];
+			System.arraycopy(nameBytes, 0, nameBytesNew, 0, nNameBytes);
+			nameBytes = nameBytesNew;
+		}
+	}
+
+	/**
+	 * Get Number of Objects
+	 */
+	public int getCount() {
+		return nCount;
+	}
+
+	/**
+	 * Get Name
+	 */
+	public String getName(int i) {
+		int nStart = (i == 0) ? 0 : nNameEnd[i - 1];
+		return new String(nameBytes, nStart, nNameEnd[i] - nStart,
+						  StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Find Object by Name (returns -1 if not found)
+	 */
+	public int find(String strName) {
+		for (int i = 0; i < nCount; i++) {
+			if (getName(i).equals(strName)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Get Elements
+	 */
+	public double getT(int i) {
+		return fT[i];
+	}
+	public double getE(int i) {
+		return fE[i];
+	}
+	public double getQ(int i) {
+		return fQ[i];
+	}
+	public double getPeri(int i) {
+		return fPeri[i];
+	}
+	public double getNode(int i) {
+		return fNode[i];
+	}
+	public double getIncl(int i) {
+		return fIncl[i];
+	}
+	public double getEquinox(int i) {
+		return fEqnx[i];
+	}
+
+	/**
+	 * Get Object as Comet
+	 */
+	public Comet getObject(int i) {
+		return new Comet(getName(i), fT[i], fE[i], fQ[i],
+						 fPeri[i], fNode[i], fIncl[i], fEqnx[i]);
+	}
+
+	/**
+	 * Get All Objects as CometArray
+	 */
+	public CometArray getCometArray() {
+		CometArray cometArray = new CometArray(nCount);
+		for (int i = 0; i < nCount; i++) {
+			cometArray.set(i, new Comet("", fT[i], fE[i], fQ[i],
+										fPeri[i], fNode[i], fIncl[i],
+										fEqnx[i]));
+		}
+		return cometArray;
+	}
+}
@@ -0,0 +1,350 @@
+/**
+ * Orbit Catalog Loader
+ *
+ * Loads an OrbitCatalog from a text file of orbital elements, either
+ *
+ *   MPCORB   fixed-width columns of the Minor Planet Center
+ *            (MPCORB.DAT; the header up to the "-----" line is skipped)
+ *   CSV      comma separated values with a header line of the applet
+ *            parameter names (Name, T or Epoch and M, e, q or a, Peri,
+ *            Node, Incl, Eqnx), see OrbitViewer
+ *
+ * The file is read as a stream in chunks of lines, which are parsed in
+ * parallel on a fork/join pool and appended in the file order.  Only a
+ * few chunks are in memory at a time.  Lines which cannot be parsed
+ * are skipped and counted.
+ */
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import astro.*;
+
+public class OrbitCatalogLoader {
+
+	/**
+	 * Lines Parsed by One Task
+	 */
+	static final int nLinesPerChunk = 4096;
+
+	private int nThreads;
+	private int nSkipped;
+
+	/**
+	 * Constructor
+	 */
+	public OrbitCatalogLoader(int nThreads) {
+		this.nThreads = Math.max(nThreads, 1);
+	}
+
+	public OrbitCatalogLoader() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Number of Lines Skipped in the Last Load
+	 */
+	public int getSkippedCount() {
+		return nSkipped;
+	}
+
+	/**
+	 * Load Catalog File
+	 */
+	public OrbitCatalog load(File file) throws IOException {
+		Reader reader = new InputStreamReader(new FileInputStream(file),
+											  StandardCharsets.UTF_8);
+		try {
+			return load(reader);
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Load Catalog from Reader
+	 */
+	public OrbitCatalog load(Reader reader) throws IOException {
+		BufferedReader in = new BufferedReader(reader, 1 << 16);
+		OrbitCatalog catalog = new OrbitCatalog();
+		nSkipped = 0;
+
+		String strLine;
+		do {
+			strLine = in.readLine();
+		} while (strLine != null && strLine.trim().length() == 0);
+		if (strLine == null) {
+			return catalog;
+		}
+		final int nColumn[];
+		if (strLine.indexOf(',') >= 0) {
+			nColumn = getCsvColumns(strLine);
+			strLine = in.readLine();
+		} else {
+			nColumn = null;
+			if (!isMpcorbData(strLine)) {
+				// skip header
+				while (strLine != null && !strLine.startsWith("-----")) {
+					strLine = in.readLine();
+				}
+				if (strLine != null) {
+					strLine = in.readLine();
+				}
+			}
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(nThreads);
+		ArrayDeque<ForkJoinTask<Chunk>> tasks
+			= new ArrayDeque<ForkJoinTask<Chunk>>();
+		int nMaxTasks = nThreads * 2;
+		try {
+			while (strLine != null) {
+				final String lines[] = new String[nLinesPerChunk];
+				int n = 0;
+				while (strLine != null && n < nLinesPerChunk) {
+					lines[n++] = strLine;
+					strLine = in.readLine();
+				}
+				final int nLines = n;
+				tasks.addLast(pool.submit(new Callable<Chunk>() {
+					public Chunk call() {
+						return parseChunk(lines, nLines, nColumn);
+					}
+				}));
+				if (tasks.size() >= nMaxTasks) {
+					append(catalog, tasks.removeFirst().join());
+				}
+			}
+			while (!tasks.isEmpty()) {
+				append(catalog, tasks.removeFirst().join());
+			}
+		} finally {
+			pool.shutdown();
+		}
+		catalog.trimToSize();
+		return catalog;
+	}
+
+	/**
+	 * Parsed Chunk
+	 */
+	private static class Chunk {
+		OrbitCatalog catalog;
+		int nSkipped;
+	}
+
+	private void append(OrbitCatalog catalog, Chunk chunk) {
+		catalog.addAll(chunk.catalog);
+		nSkipped += chunk.nSkipped;
+	}
+
+	/**
+	 * Parse Lines (nColumn is null for MPCORB)
+	 */
+	private static Chunk parseChunk(String lines[], int nLines,
+									int nColumn[]) {
+		Chunk chunk = new Chunk();
+		chunk.catalog = new OrbitCatalog(nLines);
+		for (int i = 0; i < nLines; i++) {
+			if (lines[i].trim().length() == 0) {
+				continue;
+			}
+			boolean bParsed;
+			try {
+				if (nColumn == null) {
+					bParsed = parseMpcorb(lines[i], chunk.catalog);
+				} else {
+					bParsed = parseCsv(lines[i], nColumn, chunk.catalog);
+				}
+			} catch (RuntimeException e) {
+				// ex. NumberFormatException
+				bParsed = false;
+			}
+			if (!bParsed) {
+				chunk.nSkipped++;
+			}
+		}
+		return chunk;
+	}
+
+	/**
+	 * Parse MPCORB Line (columns are 1-origin in the MPC documents)
+	 */
+	private static boolean parseMpcorb(String strLine, OrbitCatalog catalog) {
+		if (strLine.length() < 103) {
+			return false;
+		}
+		double fEpochJd;
+		try {
+			fEpochJd = unpackEpoch(strLine.substring(20, 25));
+		} catch (RuntimeException e) {
+			return false;
+		}
+		double M    = Double.parseDouble(strLine.substring( 26,  35).trim());
+		double peri = Double.parseDouble(strLine.substring( 37,  46).trim());
+		double node = Double.parseDouble(strLine.substring( 48,  57).trim());
+		double incl = Double.parseDouble(strLine.substring( 59,  68).trim());
+		double e    = Double.parseDouble(strLine.substring( 70,  79).trim());
+		double a    = Double.parseDouble(strLine.substring( 92, 103).trim());
+		String strName = "";
+		if (strLine.length() > 166) {
+			strName = strLine.substring(166, Math.min(strLine.length(), 194))
+				.trim();
+		}
+		if (strName.length() == 0) {
+			strName = strLine.substring(0, 7).trim();
+		}
+		return addEpochElements(catalog, strName, fEpochJd, M, e, a,
+								peri, node, incl, 2000.0);
+	}
+
+	private static boolean isMpcorbData(String strLine) {
+		try {
+			return parseMpcorb(strLine, new OrbitCatalog(1));
+		} catch (RuntimeException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Packed Epoch of MPC (ex. "K239D" = 2023/09/13) -> JD
+	 */
+	static double unpackEpoch(String strPacked) {
+		int nYear = (strPacked.charAt(0) - 'A' + 10) * 100
+			+ Integer.parseInt(strPacked.substring(1, 3));
+		int nMonth = unpackDigit(strPacked.charAt(3));
+		int nDay   = unpackDigit(strPacked.charAt(4));
+		if (nYear < 1000 || nMonth < 1 || nMonth > 12 || nDay < 1) {
+			throw new NumberFormatException("Bad epoch " + strPacked);
+		}
+		return new ATime(nYear, nMonth, (double)nDay, 0.0).getJd();
+	}
+
+	private static int unpackDigit(char c) {
+		if ('0' <= c && c <= '9') {
+			return c - '0';
+		} else if ('A' <= c && c <= 'Z') {
+			return c - 'A' + 10;
+		}
+		throw new NumberFormatException("Bad packed digit " + c);
+	}
+
+	/**
+	 * CSV Columns
+	 */
+	static final String strCsvName[] = {
+		"Name", "T", "Epoch", "M", "e", "q", "a",
+		"Peri", "Node", "Incl", "Eqnx"
+	};
+	static final int CSV_NAME = 0, CSV_T = 1, CSV_EPOCH = 2, CSV_M = 3,
+		CSV_E = 4, CSV_Q = 5, CSV_A = 6, CSV_PERI = 7, CSV_NODE = 8,
+		CSV_INCL = 9, CSV_EQNX = 10;
+
+	/**
+	 * Column Index of each Parameter from the Header (-1: none)
+	 */
+	private static int[] getCsvColumns(String strHeader) {
+		String strField[] = strHeader.split(",", -1);
+		int nColumn[] = new int[strCsvName.length];
+		for (int i = 0; i < strCsvName.length; i++) {
+			nColumn[i] = -1;
+			for (int j = 0; j < strField.length; j++) {
+				if (strField[j].trim().equals(strCsvName[i])) {
+					nColumn[i] = j;
+				}
+			}
+		}
+		return nColumn;
+	}
+
+	/**
+	 * Get CSV Field (null if no column or empty)
+	 */
+	private static String getField(String strField[], int nColumn[],
+								   int nParam) {
+		int j = nColumn[nParam];
+		if (j < 0 || j >= strField.length) {
+			return null;
+		}
+		String str = strField[j].trim();
+		return str.length() == 0 ? null : str;
+	}
+
+	private static double getDouble(String strField[], int nColumn[],
+									int nParam) {
+		String str = getField(strField, nColumn, nParam);
+		return (str == null) ? Double.NaN : Double.parseDouble(str);
+	}
+
+	/**
+	 * Parse CSV Line (same rules as OrbitParam.getObject)
+	 */
+	private static boolean parseCsv(String strLine, int nColumn[],
+									OrbitCatalog catalog) {
+		String strField[] = strLine.split(",", -1);
+		String strName = getField(strField, nColumn, CSV_NAME);
+		if (strName == null) {
+			strName = "Object";
+		}
+		double e    = getDouble(strField, nColumn, CSV_E);
+		double q    = getDouble(strField, nColumn, CSV_Q);
+		double a    = getDouble(strField, nColumn, CSV_A);
+		double peri = getDouble(strField, nColumn, CSV_PERI);
+		double node = getDouble(strField, nColumn, CSV_NODE);
+		double incl = getDouble(strField, nColumn, CSV_INCL);
+		double eqnx = getDouble(strField, nColumn, CSV_EQNX);
+		if (Double.isNaN(e) || Double.isNaN(peri) || Double.isNaN(node)
+			|| Double.isNaN(incl) || Double.isNaN(eqnx)) {
+			return false;
+		}
+		String strT = getField(strField, nColumn, CSV_T);
+		if (strT != null) {
+			if (Double.isNaN(q)) {
+				if (Double.isNaN(a) || Math.abs(e - 1.0) < 1.0e-15) {
+					return false;
+				}
+				q = a * (1.0 - e);
+			}
+			double fT = OrbitParam.ymdStringToAtime(strT).getJd();
+			catalog.add(strName, fT, e, q, peri * Math.PI / 180.0,
+						node * Math.PI / 180.0, incl * Math.PI / 180.0, eqnx);
+			return true;
+		}
+		String strEpoch = getField(strField, nColumn, CSV_EPOCH);
+		if (strEpoch == null) {
+			return false;
+		}
+		if (Double.isNaN(a)) {
+			if (Double.isNaN(q)) {
+				return false;
+			}
+			a = q / (1.0 - e);
+		}
+		return addEpochElements(catalog, strName,
+								OrbitParam.ymdStringToAtime(strEpoch).getJd(),
+								getDouble(strField, nColumn, CSV_M), e, a,
+								peri, node, incl, eqnx);
+	}
+
+	/**
+	 * Add Object given by Epoch and M (same rules as OrbitParam.getObject)
+	 */
+	private static boolean addEpochElements(OrbitCatalog catalog,
+											String strName, double fEpochJd,
+											double M, double e, double a,
+											double peri, double node,
+											double incl, double eqnx) {
+		if (Double.isNaN(M) || e > 0.95) {
+			return false;
+		}
+		double q = a * (1.0 - e);
+		if (!(q >= 1.0e-15)) {
+			return false;
+		}
+		catalog.add(strName, OrbitParam.getPerihelionJd(fEpochJd, a, M),
+					e, q, peri * Math.PI / 180.0, node * Math.PI / 180.0,
+					incl * Math.PI / 180.0, eqnx);
+		return true;
+	}
+}
@@ -0,0 +1,170 @@
+/**
+ * Orbit Animation Exporter
+ *
+ * Renders a sequence of frames (start date, time step, frame count)
+ * in parallel on a fork/join pool, and writes them in frame order as
+ * numbered PNG files or as one raw RGB stream (3 bytes per pixel,
+ * rows from top to bottom, frames one after another).
+ */
+
+import java.awt.image.*;
+import java.io.*;
+import java.util.concurrent.*;
+import javax.imageio.*;
+import astro.*;
+
+public class OrbitExporter {
+
+	/**
+	 * Frames rendered by one task at least
+	 */
+	static final int nMinFramesPerTask = 2;
+
+	private OrbitImage settings;
+	private Comet      object;
+	private ATime      atimeFrame[];
+	private ForkJoinPool pool;
+
+	/**
+	 * Rendered Images (slot = frame % images.length) and PNG file names
+	 */
+	private BufferedImage images[];
+	private String strPattern;
+
+	/**
+	 * Constructor
+	 */
+	public OrbitExporter(OrbitImage settings, Comet object,
+						 ATime atimeStart, TimeSpan timeStep,
+						 int nIncOrDec, int nFrames, int nThreads) {
+		this.settings = settings;
+		this.object = object;
+		// Date of each frame (ATime.changeDate is not linear in months)
+		this.atimeFrame = new ATime[nFrames];
+		ATime atime = new ATime(atimeStart);
+		for (int i = 0; i < nFrames; i++) {
+			atimeFrame[i] = new ATime(atime);
+			atime.changeDate(timeStep, nIncOrDec);
+		}
+		this.pool = new ForkJoinPool(nThreads);
+	}
+
+	/**
+	 * Render Frames from nFrom to nTo - 1
+	 */
+	private class RenderTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private int nFrom, nTo;
+
+		RenderTask(int nFrom, int nTo) {
+			this.nFrom = nFrom;
+			this.nTo   = nTo;
+		}
+
+		protected void compute() {
+			if (nTo - nFrom <= nMinFramesPerTask) {
+				// the frames of a task in order, on one point layer, so
+				// that the layer starts from the positions of the last one
+				OrbitPointLayer pointLayer = settings.makePointLayer();
+				for (int i = nFrom; i < nTo; i++) {
+					renderFrame(i, pointLayer);
+				}
+			} else {
+				int nMid = (nFrom + nTo) / 2;
+				invokeAll(new RenderTask(nFrom, nMid),
+						  new RenderTask(nMid, nTo));
+			}
+		}
+	}
+
+	/**
+	 * Render One Frame (and write it if PNG)
+	 *
+	 * Each frame has its own renderer, so that planet orbits and the
+	 * ecliptic matrix are made for the date of the frame, and the result
+	 * does not depend on which thread rendered which frames before
+	 * (the point layer is of the task, which has fixed frames).
+	 */
+	private void renderFrame(int nFrame, OrbitPointLayer pointLayer) {
+		OrbitRenderer renderer = settings.makeRenderer(object,
+													   atimeFrame[nFrame],
+													   pointLayer);
+		BufferedImage image = OrbitImage.renderImage(renderer,
+													 settings.nWidth,
+													 settings.nHeight);
+		if (strPattern != null) {
+			String strFile = String.format(strPattern, nFrame);
+			try {
+				ImageIO.write(image, "png", new File(strFile));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		} else {
+			images[nFrame % images.length] = image;
+		}
+	}
+
+	/**
+	 * Write All Frames as PNG Files
+	 * (strPattern is a format for the frame number, ex. "frame%05d.png")
+	 */
+	public void writePng(String strPattern) throws IOException {
+		this.strPattern = strPattern;
+		try {
+			pool.invoke(new RenderTask(0, atimeFrame.length));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Write All Frames as Raw RGB Stream
+	 *
+	 * Frames are rendered in chunks; while one chunk is written to the
+	 * stream in order, the next chunk is rendered in parallel.
+	 */
+	public void writeRaw(OutputStream out) throws IOException {
+		int nChunk = Math.max(pool.getParallelism() * nMinFramesPerTask * 2,
+							  1);
+		int nFrames = atimeFrame.length;
+		images = new BufferedImage[nChunk * 2];
+		byte buf[] = new byte[settings.nWidth * settings.nHeight * 3];
+		try {
+			ForkJoinTask<Void> next
+				= pool.submit(new RenderTask(0, Math.min(nChunk, nFrames)));
+			for (int nStart = 0; nStart < nFrames; nStart += nChunk) {
+				next.join();
+				int nEnd = Math.min(nStart + nChunk, nFrames);
+				if (nEnd < nFrames) {
+					next = pool.submit(new RenderTask(nEnd,
+									   Math.min(nEnd + nChunk, nFrames)));
+				}
+				for (int i = nStart; i < nEnd; i++) {
+					writeRgb(out, images[i % images.length], buf);
+					images[i % images.length] = null;
+				}
+			}
+			out.flush();
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Write Image as RGB Bytes
+	 */
+	private static void writeRgb(OutputStream out, BufferedImage image,
+								 byte buf[]) throws IOException {
+		int nPixel[] = ((DataBufferInt)image.getRaster().getDataBuffer())
+			.getData();
+		for (int i = 0, j = 0; i < nPixel.length; i++) {
+			buf[j++] = (byte)(nPixel[i] >> 16);
+			buf[j++] = (byte)(nPixel[i] >>  8);
+			buf[j++] = (byte)(nPixel[i]      );
+		}
+		out.write(buf, 0, nPixel.length * 3);
+	}
+}
@@ -0,0 +1,68 @@
+/**
+ * Orbit Frame
+ *
+ * Snapshot of the scene for one date, made by the compute stage
+ * (OrbitRenderer.makeFrame) and drawn by the render stage
+ * (OrbitRenderer.setFrame): the date, the positions of the object and
+ * planets, and the matrix from equatorial 2000.0 to ecliptic of date.
+ * A frame is never changed after it is made, so that it may be passed
+ * between threads; the Xyz and Matrix in it must not be modified.
+ * (The point layer is not a part of the frame.)
+ */
+
+import astro.*;
+
+public final class OrbitFrame {
+
+	private final ATime  atime;
+	private final Xyz    objectPos;
+	private final Xyz    planetPos[];
+	private final Matrix mtxToEcl;
+	private final double epochToEcl;
+
+	/**
+	 * Constructor (atime is copied, the others are taken over)
+	 */
+	public OrbitFrame(ATime atime, Xyz objectPos, Xyz planetPos[],
+					  Matrix mtxToEcl, double epochToEcl) {
+		this.atime      = new ATime(atime);
+		this.objectPos  = objectPos;
+		this.planetPos  = planetPos;
+		this.mtxToEcl   = mtxToEcl;
+		this.epochToEcl = epochToEcl;
+	}
+
+	/**
+	 * Get Date (a copy)
+	 */
+	public ATime getAtime() {
+		return new ATime(atime);
+	}
+	public double getJd() {
+		return atime.getJd();
+	}
+
+	/**
+	 * Get Position of the Object (Equatorial 2000.0)
+	 */
+	public Xyz getObjectPos() {
+		return objectPos;
+	}
+
+	/**
+	 * Get Position of a Planet (0: Mercury ... 8: Pluto, Ecliptic of Date)
+	 */
+	public Xyz getPlanetPos(int i) {
+		return planetPos[i];
+	}
+
+	/**
+	 * Get Matrix Equatorial(2000)->Ecliptic(DATE) and Its Epoch (JD)
+	 */
+	public Matrix getMatrixToEcl() {
+		return mtxToEcl;
+	}
+	public double getEpochToEcl() {
+		return epochToEcl;
+	}
+}
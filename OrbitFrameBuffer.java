@@ -0,0 +1,90 @@
+/**
+ * Orbit Frame Buffer
+ *
+ * Bounded ring buffer of frames between the compute stage (put) and the
+ * render stage (takeLatest).  The compute stage never waits: if the
+ * buffer is full, the oldest frame is overwritten.  The render stage
+ * takes the latest frame, and the older ones are dropped; so a render
+ * stage slower than the compute stage skips frames instead of lagging.
+ */
+
+public class OrbitFrameBuffer {
+
+	public static final int DEFAULT_CAPACITY = 4;
+
+	private OrbitFrame frames[];
+	private int nHead  = 0;	// index of the next put
+	private int nCount = 0;
+
+	/**
+	 * Statistics
+	 */
+	private long nPut     = 0;
+	private long nTaken   = 0;
+	private long nDropped = 0;
+
+	/**
+	 * Constructor
+	 */
+	public OrbitFrameBuffer(int nCapacity) {
+		if (nCapacity < 1) {
+			throw new IllegalArgumentException();
+		}
+		frames = new OrbitFrame[nCapacity];
+	}
+
+	public OrbitFrameBuffer() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Put Frame (the oldest one is overwritten if full)
+	 */
+	public synchronized void put(OrbitFrame frame) {
+		frames[nHead] = frame;
+		nHead = (nHead + 1) % frames.length;
+		if (nCount == frames.length) {
+			nDropped++;
+		} else {
+			nCount++;
+		}
+		nPut++;
+	}
+
+	/**
+	 * Take the Latest Frame, Dropping the Older Ones (null: empty)
+	 */
+	public synchronized OrbitFrame takeLatest() {
+		if (nCount == 0) {
+			return null;
+		}
+		int nLatest = (nHead + frames.length - 1) % frames.length;
+		OrbitFrame frame = frames[nLatest];
+		java.util.Arrays.fill(frames, null);
+		nDropped += nCount - 1;
+		nCount = 0;
+		nTaken++;
+		return frame;
+	}
+
+	/**
+	 * Statistics
+	 */
+	public synchronized long getPutCount() {
+		return nPut;
+	}
+	public synchronized long getTakenCount() {
+		return nTaken;
+	}
+	public synchronized long getDroppedCount() {
+		return nDropped;
+	}
+
+	/**
+	 * Statistics Report
+	 */
+	public synchronized String toString() {
+		return "OrbitFrameBuffer: " + nPut + " put, " + nTaken + " taken, "
+			+ nDropped + " dropped";
+	}
+}
@@ -0,0 +1,320 @@
+/**
+ * Orbit Image
+ *
+ * Command line tool which draws the same picture as the applet into a
+ * PNG image file.  No applet or display is needed (java.awt.headless).
+ *
+ *   java OrbitImage [options] NAME=VALUE ...
+ *
+ * NAME=VALUE are the applet parameters (see OrbitViewer), ex.
+ *
+ *   java OrbitImage -o halley.png Name=1P/Halley T=19860209.7695 \
+ *        e=0.967267 q=0.587096 Peri=111.8466 Node=58.1440 \
+ *        Incl=162.2393 Eqnx=1950.0 Date=19860209.0
+ *
+ * Options
+ *
+ *   -o FILE       output file              (default: orbit.png)
+ *   -size WxH     image size               (default: 510x400)
+ *   -horz DEG     horizontal rotation      (default: 15)
+ *   -vert DEG     vertical rotation        (default: 50)
+ *   -zoom N       zoom 5...450             (default: 67)
+ *   -center N     0:Sun 1:Asteroid/Comet 2:Mercury ... 10:Pluto (default: 0)
+ *   -ephemeris FILE  planet ephemeris file (see astro.EphemerisWriter)
+ *   -catalog FILE    orbital elements file, MPCORB or CSV (see
+ *                    OrbitCatalogLoader); the object is chosen by Name=
+ *   -points FILE     orbital elements file of objects drawn as points
+ *
+ * Animation (frames are rendered in parallel, see OrbitExporter)
+ *
+ *   -frames N     number of frames         (default: 1)
+ *   -step SPAN    time step, NUMBER followed by h(our), d(ay), m(onth)
+ *                 or y(ear), negative for backward (default: 1d)
+ *   -threads N    number of threads        (default: number of CPUs)
+ *   -raw FILE     write raw RGB stream to FILE ("-" for standard output)
+ *                 instead of PNG files
+ *
+ * With -frames, -o is the pattern of PNG file names for the frame
+ * number (ex. frame%05d.png).
+ */
+
+import java.awt.*;
+import java.awt.image.*;
+import java.io.*;
+import java.util.*;
+import javax.imageio.*;
+import astro.*;
+
+public class OrbitImage {
+
+	/**
+	 * Initial Settings (same as the applet)
+	 */
+	int nWidth   = 510;
+	int nHeight  = 400;
+	int nRotateH = 270 - 255;
+	int nRotateV = 180 - (90+40);
+	int nZoom    = 67;
+	int nCenter  = 0;
+	String strOutput = "orbit.png";
+
+	/**
+	 * Animation Settings
+	 */
+	int      nFrames   = 1;
+	TimeSpan timeStep  = new TimeSpan(0, 0, 1, 0, 0, 0.0);
+	int      nIncOrDec = ATime.F_INCTIME;
+	int      nThreads  = Runtime.getRuntime().availableProcessors();
+	String   strRaw    = null;
+
+	/**
+	 * Planet Ephemeris File
+	 */
+	String strEphemeris = null;
+
+	/**
+	 * Catalog File of Orbital Elements
+	 */
+	String strCatalog = null;
+
+	/**
+	 * Objects Drawn as Points (from -points FILE)
+	 */
+	String     strPoints  = null;
+	CometArray cometArray = null;
+
+	/**
+	 * Applet Parameters (NAME=VALUE)
+	 */
+	Hashtable<String, String> param = new Hashtable<String, String>();
+
+	/**
+	 * Parse Command Line Arguments
+	 */
+	void parseArgs(String args[]) {
+		for (int i = 0; i < args.length; i++) {
+			String strArg = args[i];
+			int nEqual = strArg.indexOf('=');
+			if (!strArg.startsWith("-") && nEqual > 0) {
+				param.put(strArg.substring(0, nEqual),
+						  strArg.substring(nEqual + 1));
+				continue;
+			}
+			if (i + 1 >= args.length) {
+				throw new IllegalArgumentException("Unknown argument '"
+												   + strArg + "'.");
+			}
+			String strValue = args[++i];
+			if (strArg.equals("-o")) {
+				strOutput = strValue;
+			} else if (strArg.equals("-size")) {
+				int nX = strValue.indexOf('x');
+				if (nX < 0) {
+					throw new IllegalArgumentException("Bad size '"
+													   + strValue + "'.");
+				}
+				nWidth  = Integer.parseInt(strValue.substring(0, nX));
+				nHeight = Integer.parseInt(strValue.substring(nX + 1));
+			} else if (strArg.equals("-horz")) {
+				nRotateH = Integer.parseInt(strValue);
+			} else if (strArg.equals("-vert")) {
+				nRotateV = Integer.parseInt(strValue);
+			} else if (strArg.equals("-zoom")) {
+				nZoom = Integer.parseInt(strValue);
+			} else if (strArg.equals("-center")) {
+				nCenter = Integer.parseInt(strValue);
+			} else if (strArg.equals("-frames")) {
+				nFrames = Integer.parseInt(strValue);
+			} else if (strArg.equals("-step")) {
+				parseTimeStep(strValue);
+			} else if (strArg.equals("-threads")) {
+				nThreads = Integer.parseInt(strValue);
+			} else if (strArg.equals("-raw")) {
+				strRaw = strValue;
+			} else if (strArg.equals("-ephemeris")) {
+				strEphemeris = strValue;
+			} else if (strArg.equals("-catalog")) {
+				strCatalog = strValue;
+			} else if (strArg.equals("-points")) {
+				strPoints = strValue;
+			} else {
+				throw new IllegalArgumentException("Unknown option '"
+												   + strArg + "'.");
+			}
+		}
+	}
+
+	/**
+	 * Parse Time Step (ex. "1h", "10d", "-3m", "1y")
+	 */
+	void parseTimeStep(String strStep) {
+		int nLen = strStep.length();
+		if (nLen < 2) {
+			throw new IllegalArgumentException("Bad step '" + strStep + "'.");
+		}
+		int nStep = Integer.parseInt(strStep.substring(0, nLen - 1));
+		nIncOrDec = (nStep < 0) ? ATime.F_DECTIME : ATime.F_INCTIME;
+		nStep = Math.abs(nStep);
+		switch (strStep.charAt(nLen - 1)) {
+		case 'h':
+			timeStep = new TimeSpan(0, 0, 0, nStep, 0, 0.0);
+			break;
+		case 'd':
+			timeStep = new TimeSpan(0, 0, nStep, 0, 0, 0.0);
+			break;
+		case 'm':
+			timeStep = new TimeSpan(0, nStep, 0, 0, 0, 0.0);
+			break;
+		case 'y':
+			timeStep = new TimeSpan(nStep, 0, 0, 0, 0, 0.0);
+			break;
+		default:
+			throw new IllegalArgumentException("Bad step '" + strStep + "'.");
+		}
+	}
+
+	/**
+	 * PNG File Name Pattern for Frames
+	 * (inserts "%05d" before the extension if no pattern is given)
+	 */
+	String getFramePattern() {
+		if (strOutput.indexOf('%') >= 0) {
+			return strOutput;
+		}
+		int nDot = strOutput.lastIndexOf('.');
+		if (nDot < 0) {
+			return strOutput + "%05d.png";
+		}
+		return strOutput.substring(0, nDot) + "%05d"
+			+ strOutput.substring(nDot);
+	}
+
+	/**
+	 * Get Initial Date ("Date" parameter or today)
+	 */
+	ATime getDate() {
+		String strParam = param.get("Date");
+		if (strParam != null) {
+			return OrbitParam.ymdStringToAtime(strParam);
+		}
+		Calendar cal = Calendar.getInstance();
+		return new ATime(cal.get(Calendar.YEAR), cal.get(Calendar.MONTH) + 1,
+						 (double)cal.get(Calendar.DAY_OF_MONTH), 0.0);
+	}
+
+	/**
+	 * Get Object from Catalog File ("Name" parameter or the first one)
+	 */
+	Comet getCatalogObject() throws IOException {
+		OrbitCatalogLoader loader = new OrbitCatalogLoader(nThreads);
+		OrbitCatalog catalog = loader.load(new File(strCatalog));
+		if (catalog.getCount() == 0) {
+			throw new IOException("No object in '" + strCatalog + "'.");
+		}
+		String strName = param.get("Name");
+		int nIndex = (strName == null) ? 0 : catalog.find(strName);
+		if (nIndex < 0) {
+			throw new IOException("Object '" + strName + "' not in '"
+								  + strCatalog + "'.");
+		}
+		return catalog.getObject(nIndex);
+	}
+
+	/**
+	 * Make Renderer with the Settings
+	 */
+	OrbitRenderer makeRenderer(Comet object, ATime atime) {
+		return makeRenderer(object, atime, makePointLayer());
+	}
+
+	/**
+	 * Make Renderer with the Settings and the Point Layer (null: none)
+	 */
+	OrbitRenderer makeRenderer(Comet object, ATime atime,
+							   OrbitPointLayer pointLayer) {
+		OrbitRenderer renderer = new OrbitRenderer(object, atime);
+		renderer.setRotateHorz(nRotateH);
+		renderer.setRotateVert(nRotateV);
+		renderer.setZoom(nZoom);
+		renderer.SelectCenterObject(nCenter);
+		renderer.switchPlanetName(true);
+		renderer.switchObjectName(true);
+		renderer.switchDistanceLabel(true);
+		renderer.switchDateLabel(true);
+		renderer.setPointLayer(pointLayer);
+		return renderer;
+	}
+
+	/**
+	 * Make Point Layer of the Objects (null: no objects)
+	 */
+	OrbitPointLayer makePointLayer() {
+		return (cometArray != null) ? new OrbitPointLayer(cometArray) : null;
+	}
+
+	/**
+	 * Render into a New Image
+	 */
+	static public BufferedImage renderImage(OrbitRenderer renderer,
+											int nWidth, int nHeight) {
+		BufferedImage image = new BufferedImage(nWidth, nHeight,
+												BufferedImage.TYPE_INT_RGB);
+		renderer.render(image);
+		return image;
+	}
+
+	/**
+	 * Main
+	 */
+	public static void main(String args[]) throws IOException {
+		if (System.getProperty("java.awt.headless") == null) {
+			System.setProperty("java.awt.headless", "true");
+		}
+		OrbitImage orbitImage = new OrbitImage();
+		try {
+			orbitImage.parseArgs(args);
+		} catch (IllegalArgumentException e) {
+			System.err.println("OrbitImage: " + e.getMessage());
+			System.exit(1);
+		}
+		if (orbitImage.strEphemeris != null) {
+			Planet.setEphemeris(Ephemeris.open(
+				new File(orbitImage.strEphemeris)));
+		}
+		if (orbitImage.strPoints != null) {
+			orbitImage.cometArray = new OrbitCatalogLoader(orbitImage.nThreads)
+				.load(new File(orbitImage.strPoints)).getCometArray();
+		}
+		Comet object;
+		if (orbitImage.strCatalog != null) {
+			object = orbitImage.getCatalogObject();
+		} else {
+			object = OrbitParam.getObject(orbitImage.param);
+		}
+		if (orbitImage.nFrames > 1 || orbitImage.strRaw != null) {
+			OrbitExporter exporter
+				= new OrbitExporter(orbitImage, object, orbitImage.getDate(),
+									orbitImage.timeStep, orbitImage.nIncOrDec,
+									orbitImage.nFrames, orbitImage.nThreads);
+			if (orbitImage.strRaw == null) {
+				exporter.writePng(orbitImage.getFramePattern());
+			} else if (orbitImage.strRaw.equals("-")) {
+				exporter.writeRaw(new BufferedOutputStream(System.out));
+			} else {
+				OutputStream out = new BufferedOutputStream(
+					new FileOutputStream(orbitImage.strRaw));
+				try {
+					exporter.writeRaw(out);
+				} finally {
+					out.close();
+				}
+			}
+			return;
+		}
+		OrbitRenderer renderer
+			= orbitImage.makeRenderer(object, orbitImage.getDate());
+		BufferedImage image = renderImage(renderer, orbitImage.nWidth,
+										  orbitImage.nHeight);
+		ImageIO.write(image, "png", new File(orbitImage.strOutput));
+	}
+}
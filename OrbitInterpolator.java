@@ -0,0 +1,345 @@
+/**
+ * Orbit Interpolator
+ *
+ * Positions of the object and planets during playback, interpolated
+ * between keyframes.  The exact positions and velocities (Comet.getState,
+ * Planet.getState) are computed at keyframes every nKeySteps steps of the
+ * playback on a background thread, ahead in the direction of playback,
+ * and the positions between two keyframes are given by cubic Hermite
+ * interpolation.
+ *
+ * The error of the interpolation of a body between two keyframes is
+ * estimated from the accelerations at the keyframes: that of the cubic
+ * and that of the gravity of the Sun differ by h^2/12 x'''', and the
+ * error is h^4/384 x'''' at most if x'''' is constant.  The estimate is
+ * h^2/12 of the larger difference (as vectors), with a margin of 8/3
+ * for the change of x'''' and the perturbations.  A body whose error is
+ * larger than the maximum error is not interpolated there (getPos
+ * returns null), and should be computed exactly; so is a planet whose
+ * theory is not smooth between the keyframes (Planet.isSmooth).
+ *
+ * setStep and clear (by the thread of the player) and setDate and getPos
+ * (by the thread of makeFrame) are synchronized, so that getPos sees the
+ * two keyframes of one interval of one step.
+ */
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.*;
+import astro.*;
+
+public class OrbitInterpolator {
+
+	public static final int    DEFAULT_KEY_STEPS = 10;
+	public static final double DEFAULT_MAX_ERROR = 1.0e-4;	// AU
+
+	/**
+	 * Bodies (OBJECT, Planet.MERCURY...Planet.PLUTO)
+	 */
+	public static final int OBJECT  = 0;
+	static final int        nBodies = Planet.PLUTO + 1;
+
+	/**
+	 * Keyframes Kept Before and After the Current Interval
+	 */
+	static final int nKeepBehind = 2;
+	static final int nKeepAhead  = 3;
+
+	private Comet  object;
+	private int    nKeySteps;
+	private double fMaxError;
+
+	/**
+	 * Keyframe Interval (day, 0: not set) and Direction of Playback
+	 */
+	private double fInterval  = 0.0;
+	private int    nDirection = ATime.F_INCTIME;
+
+	/**
+	 * Keyframes by Number (JD = number * fInterval), computed on the
+	 * background thread
+	 */
+	private ConcurrentHashMap<Long, Future<Keyframe>> keyframes
+		= new ConcurrentHashMap<Long, Future<Keyframe>>();
+	private ThreadPoolExecutor executor;
+
+	/**
+	 * Current Interval (null: not interpolated)
+	 */
+	private Keyframe key0 = null, key1 = null;
+	private double   fS = 0.0;			// 0...1 in the interval
+	private boolean  bInterp[] = new boolean[nBodies];
+
+	/**
+	 * Statistics
+	 */
+	private long nInterpolated = 0;	// positions interpolated
+	private long nExact        = 0;	// positions to be computed exactly
+
+	/**
+	 * Positions and Velocities of the Bodies at a Keyframe
+	 * (fPos[nBody * 3 + 0..2]; NaN if not solved)
+	 */
+	private static class Keyframe {
+		double fJd;
+		double fPos[] = new double[nBodies * 3];
+		double fVel[] = new double[nBodies * 3];
+	}
+
+	/**
+	 * Constructor
+	 */
+	public OrbitInterpolator(Comet object, int nKeySteps, double fMaxError) {
+		if (nKeySteps < 1 || !(fMaxError > 0.0)) {
+			throw new IllegalArgumentException();
+		}
+		this.object    = object;
+		this.nKeySteps = nKeySteps;
+		this.fMaxError = fMaxError;
+		// one low priority thread, which ends when idle
+		executor = new ThreadPoolExecutor(1, 1, 5, TimeUnit.SECONDS,
+										  new LinkedBlockingQueue<Runnable>(),
+										  r -> {
+			Thread thread = new Thread(r, "OrbitInterpolator");
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Constructor with Default Settings
+	 */
+	public OrbitInterpolator(Comet object) {
+		this(object, DEFAULT_KEY_STEPS, DEFAULT_MAX_ERROR);
+	}
+
+	/**
+	 * Step of Playback Set (fStep: day, nDirection: ATime.F_INCTIME or
+	 * ATime.F_DECTIME); the keyframes are discarded if the step changes
+	 */
+	public synchronized void setStep(double fStep, int nDirection) {
+		this.nDirection = nDirection;
+		double fInterval = Math.abs(fStep) * nKeySteps;
+		if (fInterval != this.fInterval) {
+			clear();
+			this.fInterval = fInterval;
+		}
+	}
+
+	/**
+	 * Discard All Keyframes
+	 */
+	public synchronized void clear() {
+		for (Future<Keyframe> future : keyframes.values()) {
+			future.cancel(false);
+		}
+		keyframes.clear();
+		key0 = key1 = null;
+	}
+
+	/**
+	 * Date Set (returns false if no body is interpolated at this date)
+	 */
+	public synchronized boolean setDate(double fJd) {
+		key0 = key1 = null;
+		if (!(fInterval > 0.0)) {
+			nExact += nBodies;
+			return false;
+		}
+		long nKey = (long)Math.floor(fJd / fInterval);
+		// drop keyframes out of the window, and request those in it
+		long nFrom, nTo;
+		if (nDirection == ATime.F_DECTIME) {
+			nFrom = nKey - nKeepAhead + 1;
+			nTo   = nKey + 1 + nKeepBehind;
+		} else {
+			nFrom = nKey - nKeepBehind;
+			nTo   = nKey + nKeepAhead;
+		}
+		Iterator<Map.Entry<Long, Future<Keyframe>>> it
+			= keyframes.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<Long, Future<Keyframe>> entry = it.next();
+			long n = entry.getKey();
+			if (n < nFrom || nTo < n) {
+				entry.getValue().cancel(false);
+				it.remove();
+			}
+		}
+		// the current interval first, then ahead
+		request(nKey);
+		request(nKey + 1);
+		if (nDirection == ATime.F_DECTIME) {
+			for (long n = nKey - 1; n >= nFrom; n--) {
+				request(n);
+			}
+		} else {
+			for (long n = nKey + 2; n <= nTo; n++) {
+				request(n);
+			}
+		}
+		Keyframe k0 = getDone(nKey);
+		Keyframe k1 = getDone(nKey + 1);
+		if (k0 == null || k1 == null) {
+			nExact += nBodies;
+			return false;
+		}
+		key0 = k0;
+		key1 = k1;
+		fS = (fJd - k0.fJd) / (k1.fJd - k0.fJd);
+		boolean bAny = false;
+		for (int i = 0; i < nBodies; i++) {
+			bInterp[i] = getError(k0, k1, i) <= fMaxError;
+			if (bInterp[i]) {
+				nInterpolated++;
+				bAny = true;
+			} else {
+				nExact++;
+			}
+		}
+		return bAny;
+	}
+
+	/**
+	 * Get Interpolated Position of a Body at the Date
+	 * (in the coordinates of getState: equatorial 2000.0 for the object,
+	 *  ecliptic of date for planets; null if not interpolated)
+	 */
+	public Xyz getPos(int nBody) {
+		return getPos(nBody, new Xyz());
+	}
+
+	/**
+	 * Get Interpolated Position of a Body at the Date into dst
+	 * (returns dst, or null if not interpolated)
+	 */
+	public synchronized Xyz getPos(int nBody, Xyz dst) {
+		if (key0 == null || !bInterp[nBody]) {
+			return null;
+		}
+		double h = key1.fJd - key0.fJd;
+		double s = fS;
+		double h00 = (1.0 + 2.0 * s) * (1.0 - s) * (1.0 - s);
+		double h10 = s * (1.0 - s) * (1.0 - s) * h;
+		double h01 = s * s * (3.0 - 2.0 * s);
+		double h11 = s * s * (s - 1.0) * h;
+		int n = nBody * 3;
+		return dst.set(hermite(n,     h00, h10, h01, h11),
+					   hermite(n + 1, h00, h10, h01, h11),
+					   hermite(n + 2, h00, h10, h01, h11));
+	}
+
+	private double hermite(int n, double h00, double h10,
+						   double h01, double h11) {
+		return h00 * key0.fPos[n] + h10 * key0.fVel[n]
+			 + h01 * key1.fPos[n] + h11 * key1.fVel[n];
+	}
+
+	/**
+	 * Request Keyframe nKey to the Background Thread
+	 */
+	private void request(long nKey) {
+		final double fJd = nKey * fInterval;
+		keyframes.computeIfAbsent(nKey,
+								  n -> executor.submit(() -> compute(fJd)));
+	}
+
+	/**
+	 * Get Keyframe nKey if Computed (null: not yet)
+	 */
+	private Keyframe getDone(long nKey) {
+		Future<Keyframe> future = keyframes.get(nKey);
+		if (future == null || !future.isDone() || future.isCancelled()) {
+			return null;
+		}
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			return null;
+		} catch (ExecutionException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Compute Keyframe (background thread)
+	 */
+	private Keyframe compute(double fJd) {
+		Keyframe key = new Keyframe();
+		key.fJd = fJd;
+		double fPos[] = new double[3];
+		double fVel[] = new double[3];
+		for (int i = 0; i < nBodies; i++) {
+			try {
+				if (i == OBJECT) {
+					object.getState(fJd, fPos, fVel);
+				} else {
+					Planet.getState(i, fJd, fPos, fVel);
+				}
+			} catch (ArithmeticException e) {
+				fPos[0] = fPos[1] = fPos[2] = Double.NaN;
+			}
+			System.arraycopy(fPos, 0, key.fPos, i * 3, 3);
+			System.arraycopy(fVel, 0, key.fVel, i * 3, 3);
+		}
+		return key;
+	}
+
+	/**
+	 * Estimated Error of Interpolation of a Body between Two Keyframes
+	 * (AU; infinity if not solved)
+	 */
+	private static double getError(Keyframe k0, Keyframe k1, int nBody) {
+		if (nBody != OBJECT && !Planet.isSmooth(nBody, k0.fJd, k1.fJd)) {
+			return Double.POSITIVE_INFINITY;
+		}
+		double h = k1.fJd - k0.fJd;
+		double fGM0 = gm(k0.fPos, nBody);
+		double fGM1 = gm(k1.fPos, nBody);
+		double fSq0 = 0.0, fSq1 = 0.0;
+		for (int j = 0; j < 3; j++) {
+			int n = nBody * 3 + j;
+			double fDp = k1.fPos[n] - k0.fPos[n];
+			// acceleration of the cubic at both ends
+			double fA0 = (6.0 * fDp
+						  - 2.0 * h * (2.0 * k0.fVel[n] + k1.fVel[n])) / (h * h);
+			double fA1 = (-6.0 * fDp
+						  + 2.0 * h * (k0.fVel[n] + 2.0 * k1.fVel[n])) / (h * h);
+			fSq0 += (fA0 + fGM0 * k0.fPos[n]) * (fA0 + fGM0 * k0.fPos[n]);
+			fSq1 += (fA1 + fGM1 * k1.fPos[n]) * (fA1 + fGM1 * k1.fPos[n]);
+		}
+		double fError = Math.sqrt(Math.max(fSq0, fSq1)) * h * h / 12.0;
+		return Double.isNaN(fError) ? Double.POSITIVE_INFINITY : fError;
+	}
+
+	/**
+	 * k^2 / r^3 of a Body
+	 */
+	private static double gm(double fPos[], int nBody) {
+		int n = nBody * 3;
+		double fR2 = fPos[n] * fPos[n] + fPos[n + 1] * fPos[n + 1]
+			+ fPos[n + 2] * fPos[n + 2];
+		return Astro.GAUSS * Astro.GAUSS / (fR2 * Math.sqrt(fR2));
+	}
+
+	/**
+	 * Statistics
+	 */
+	public synchronized long getInterpolatedCount() {
+		return nInterpolated;
+	}
+	public synchronized long getExactCount() {
+		return nExact;
+	}
+
+	/**
+	 * Statistics Report
+	 */
+	public synchronized String toString() {
+		return "OrbitInterpolator: " + nInterpolated + " interpolated, "
+			+ nExact + " exact (keyframe " + fInterval + " days, "
+			+ keyframes.size() + " kept)";
+	}
+}
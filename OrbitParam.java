@@ -0,0 +1,114 @@
+/**
+ * Orbital Element Parameters
+ *
+ * Makes the object (Comet) from the same parameter set as the applet,
+ * given as a table of parameter name -> value string.
+ * See OrbitViewer for the parameter names.
+ */
+
+import java.util.*;
+import astro.*;
+
+public class OrbitParam {
+	/**
+	 * Convert time in format "YYYYMMDD.D" to ATime
+	 */
+	static public ATime ymdStringToAtime(String strYmd) {
+		double fYmd = Double.valueOf(strYmd).doubleValue();
+		int nYear = (int)Math.floor(fYmd / 10000.0);
+		fYmd -= (double)nYear * 10000.0;
+		int nMonth = (int)Math.floor(fYmd / 100.0);
+		double fDay = fYmd - (double)nMonth * 100.0;
+		return new ATime(nYear, nMonth, fDay, 0.0);
+	}
+
+	/**
+	 * Time of Perihelion Passage (JD) from Epoch (JD), a and M (degree)
+	 * (the nearest perihelion passage)
+	 */
+	static public double getPerihelionJd(double fEpochJd, double a,
+										 double fMDeg) {
+		double n = Astro.GAUSS / (a * Math.sqrt(a));
+		double M = fMDeg * Math.PI / 180.0;
+		if (M < Math.PI) {
+			return fEpochJd - M / n;
+		} else {
+			return fEpochJd + (Math.PI*2.0 - M) / n;
+		}
+	}
+
+	/**
+	 * Get required double parameter
+	 */
+	static private double getRequiredParameter(Hashtable<String, String> param,
+											   String strName) {
+		String strValue = param.get(strName);
+		if (strValue == null) {
+			throw new Error("Required parameter '"
+							   + strName + "' not found.");
+		}
+		return Double.valueOf(strValue).doubleValue();
+	}
+
+	/**
+	 * Get orbital elements of the object from parameters
+	 */
+	static public Comet getObject(Hashtable<String, String> param) {
+		String strName = param.get("Name");
+		if (strName == null) {
+			strName = "Object";
+		}
+		double e, q;
+		ATime T;
+		String strParam;
+		if ((strParam = param.get("e")) == null) {
+			throw new Error("required parameter 'e' not found.");
+		}
+		e = Double.valueOf(strParam).doubleValue();
+		if ((strParam = param.get("T")) != null) {
+			T = ymdStringToAtime(strParam);
+			if ((strParam = param.get("q")) != null) {
+				q = Double.valueOf(strParam).doubleValue();
+			} else if ((strParam = param.get("a")) != null) {
+				double a = Double.valueOf(strParam).doubleValue();
+				if (Math.abs(e - 1.0) < 1.0e-15) {
+					throw new Error("Orbit is parabolic, but 'q' not found.");
+				}
+				q = a * (1.0 - e);
+			} else {
+				throw new Error("Required parameter 'q' or 'a' not found.");
+			}
+		} else if ((strParam = param.get("Epoch")) != null) {
+			ATime Epoch = ymdStringToAtime(strParam);
+			if (e > 0.95) {
+				throw new
+					Error("Orbit is nearly parabolic, but 'T' not found.");
+			}
+			double a;
+			if ((strParam = param.get("a")) != null) {
+				a = Double.valueOf(strParam).doubleValue();
+				q = a * (1.0 - e);
+			} else if ((strParam = param.get("q")) != null) {
+				q = Double.valueOf(strParam).doubleValue();
+				a = q / (1.0 - e);
+			} else {
+				throw new Error("Required parameter 'q' or 'a' not found.");
+			}
+			if (q < 1.0e-15) {
+				throw new Error("Too small perihelion distance.");
+			}
+			if ((strParam = param.get("M")) == null) {
+				throw new Error("Required parameter 'M' not found.");
+			}
+			double M = Double.valueOf(strParam).doubleValue();
+			T = new ATime(getPerihelionJd(Epoch.getJd(), a, M), 0.0);
+		} else {
+			throw new Error("Required parameter 'T' or 'Epoch' not found.");
+		}
+		return new Comet(strName, T.getJd(), e, q,
+						 getRequiredParameter(param, "Peri")*Math.PI/180.0,
+						 getRequiredParameter(param, "Node")*Math.PI/180.0,
+						 getRequiredParameter(param, "Incl")*Math.PI/180.0,
+						 getRequiredParameter(param, "Eqnx"));
+	}
+}
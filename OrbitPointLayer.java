@@ -0,0 +1,102 @@
+/**
+ * Orbit Point Layer
+ *
+ * Positions of many objects (CometArray) drawn as a cloud of points.
+ * The positions for a date are computed in parallel on the common
+ * fork/join pool into primitive arrays; OrbitRenderer projects them
+ * and plots them straight into the pixels of the image.
+ */
+
+import java.util.concurrent.*;
+import astro.*;
+
+public class OrbitPointLayer {
+
+	/**
+	 * Objects Computed by One Task at least
+	 */
+	static final int nMinObjectsPerTask = 2048;
+
+	private CometArray objects;
+	private double fX[], fY[], fZ[];
+	private double fJd = Double.NaN;
+	private CometArray.Context context;
+
+	/**
+	 * Constructor (objects may be shared by layers)
+	 */
+	public OrbitPointLayer(CometArray objects) {
+		this.objects = objects;
+		// the date changes by steps: Newton's method from E of the last date
+		context = new CometArray.Context(objects,
+										 new KeplerSolver(KeplerSolver.NEWTON),
+										 true);
+		int nCount = objects.getCount();
+		fX = new double[nCount];
+		fY = new double[nCount];
+		fZ = new double[nCount];
+	}
+
+	/**
+	 * Compute Positions of Objects from nFrom to nTo - 1
+	 */
+	private class PositionTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private int nFrom, nTo;
+
+		PositionTask(int nFrom, int nTo) {
+			this.nFrom = nFrom;
+			this.nTo   = nTo;
+		}
+
+		protected void compute() {
+			if (nTo - nFrom <= nMinObjectsPerTask) {
+				objects.GetPos(fJd, nFrom, nTo, fX, fY, fZ, context);
+			} else {
+				int nMid = (nFrom + nTo) / 2;
+				invokeAll(new PositionTask(nFrom, nMid),
+						  new PositionTask(nMid, nTo));
+			}
+		}
+	}
+
+	/**
+	 * Date Parameter Set (computes all positions)
+	 */
+	public void setDate(ATime atime) {
+		if (atime.getJd() == this.fJd) {
+			return;
+		}
+		this.fJd = atime.getJd();
+		ForkJoinPool.commonPool().invoke(new PositionTask(0, getCount()));
+	}
+
+	/**
+	 * Get Number of Objects
+	 */
+	public int getCount() {
+		return objects.getCount();
+	}
+
+	/**
+	 * Get Kepler's Equation Solver (for the statistics)
+	 */
+	public KeplerSolver getKeplerSolver() {
+		return context.getKeplerSolver();
+	}
+
+	/**
+	 * Get Positions (Heliocentric Equatorial Coordinates 2000.0,
+	 * NaN if not solved)
+	 */
+	public double[] getArrayX() {
+		return fX;
+	}
+	public double[] getArrayY() {
+		return fY;
+	}
+	public double[] getArrayZ() {
+		return fZ;
+	}
+}
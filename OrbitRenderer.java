@@ -0,0 +1,978 @@
+/**
+ * Orbit Renderer
+ *
+ * Draws the orbits and positions of the object and planets into any
+ * Graphics context.  Used by OrbitCanvas in the applet, and by
+ * OrbitImage to make images without an applet (java.awt.headless=true).
+ * As a Consumer of BufferedImage, it renders into the image given, for
+ * the code in named packages (ex. bench) which cannot refer to it.
+ */
+
+import java.awt.*;
+import java.awt.image.*;
+import java.util.function.Consumer;
+import astro.*;
+
+public class OrbitRenderer implements Consumer<BufferedImage> {
+
+	/**
+	 * Orbital Element (Initialized in Constructor)
+	 */
+	private Comet object;
+
+	/**
+	 * Orbital Curve Class (Initialized in Constructor)
+	 */
+	private CometOrbit  objectOrbit;
+	private PlanetOrbit planetOrbit[];
+	private double epochPlanetOrbit;
+	private PlanetOrbitCache planetOrbitCache = null;	// null: none
+
+	/**
+	 * Date
+	 */
+	private ATime atime;
+
+	/**
+	 * Position of the Object and Planets
+	 */
+	private Xyz objectPos;
+	private Xyz planetPos[];
+	private PlanetCache planetCache = PlanetCache.getDefault();
+
+	/**
+	 * Interpolator of Positions during Playback (null: none; set by
+	 * another thread than that of makeFrame)
+	 */
+	private volatile OrbitInterpolator interpolator = null;
+
+	/**
+	 * Point Layer of Many Objects (null: none)
+	 */
+	private OrbitPointLayer pointLayer = null;
+	private BufferedImage   imageTarget = null;	// image of render()
+  private int CenterObjectSelected;
+  private boolean OrbitDisplay[];
+
+	/**
+	 * Adaptive Tessellation of Orbits (see drawOrbitCurve; fixed points
+	 * of CometOrbit and PlanetOrbit if not bAdaptiveOrbit)
+	 */
+	static final double fOrbitTolerance = 0.5;	// pixel
+	static final int    nOrbitSegments  = 16;
+	static final int    nOrbitMaxDepth  = 10;
+	private boolean bAdaptiveOrbit = false;
+	private Xyz     xyzCurve = new Xyz();
+	private double  fCurveX, fCurveY;
+	private boolean bCurveUpper;
+	private int     nCurvePoints;
+	private long    nOrbitPoints = 0;	// points of the curves drawn
+
+	/**
+	 * Layer Cache of Frame, Axis, Sun and Orbits (drawn again only when
+	 * the view changes; used if bLayerCache)
+	 *
+	 * The layer is drawn with a margin of nLayerMargin pixels around the
+	 * canvas, and is drawn at the offset of the origin from layerX0 and
+	 * layerY0 (the origin when drawn), so that it is kept while the
+	 * origin follows the object or a planet by up to the margin.
+	 */
+	private boolean       bLayerCache = false;
+	private BufferedImage imageLayer  = null;
+	private double  layerRotateH, layerRotateV, layerZoom;
+	private int     layerX0, layerY0;
+	private int     nLayerMargin;
+	private Matrix  layerMtxToEcl;
+	private double  layerEpochPlanetOrbit;
+	private boolean layerOrbitDisplay[];
+	private long    nLayerDrawn = 0;
+
+	/**
+	 * Orbits Displayed by Default
+	 * (Asteroid/Comet, Mercury, Venus, Earth, Mars, Jupiter)
+	 */
+	static final boolean OrbitDisplayDefault[] = {
+		false, true, true, true, true, true, true,
+		false, false, false, false
+	};
+
+	/**
+	 * Planet Names, and Semi-major Axes (AU) of the Inner Planets which
+	 * are drawn if fZoom * a >= 7.5
+	 */
+	static final String strPlanetName[] = {
+		"Mercury", "Venus", "Earth", "Mars", "Jupiter",
+		"Saturn", "Uranus", "Neptune", "Pluto"
+	};
+	static final double fInnerPlanetA[] = { 0.387, 0.723, 1.000, 1.524 };
+
+	/**
+	 * Projection Parameters
+	 */
+	private double fRotateH = 0.0;
+	private double fRotateV = 0.0;
+	private double fZoom = 5.0;
+
+	/**
+	 * Rotation Matrix
+	 */
+	private Matrix mtxToEcl;
+	private double epochToEcl;
+	private Matrix mtxToEclFrame;		// of the last frame made
+	private double epochToEclFrame;
+	private Matrix mtxRotate = new Matrix();
+	private Matrix mtxRotH   = new Matrix();
+	private Matrix mtxRotV   = new Matrix();
+	private Matrix mtxProj   = new Matrix();	// mtxRotate * mtxToEcl
+	private int nX0, nY0;	// Origin
+	private int nDrawWidth, nDrawHeight;	// of the image drawn into
+
+	/**
+	 * Work Area for Drawing (reused every frame)
+	 */
+	private Xyz   xyzWork  = new Xyz();
+	private Xyz   xyzWork1 = new Xyz();
+	private Point point1   = new Point(0, 0);
+
+	/**
+	 * Projected Orbit Points (reused every frame)
+	 */
+	private int     nPointX[] = new int[0];
+	private int     nPointY[] = new int[0];
+	private boolean bUpper[]  = new boolean[0];
+	private int     nRunX[]   = new int[0];
+	private int     nRunY[]   = new int[0];
+
+	/**
+	 * Size of Drawing Area
+	 */
+	private Dimension sizeCanvas = new Dimension(0, 0);
+
+	/**
+	 * Colors
+	 */
+	private Color colorObjectOrbitUpper = new Color(0x00f5ff);
+	private Color colorObjectOrbitLower = new Color(0x0000ff);
+	private Color colorObject           = new Color(0x00ffff);
+	private Color colorObjectName       = new Color(0x00cccc);
+	private Color colorPlanetOrbitUpper = new Color(0xffffff);
+	private Color colorPlanetOrbitLower = new Color(0x808080);
+	private Color colorPlanet			= new Color(0x00ff00);
+	private Color colorPlanetName		= new Color(0x00aa00);
+	private Color colorSun              = new Color(0xd04040);
+	private Color colorAxisPlus         = new Color(0xffff00);
+	private Color colorAxisMinus        = new Color(0x555500);
+	private Color colorInformation      = new Color(0xffffff);
+	private Color colorPointUpper       = new Color(0xb0b0b0);
+	private Color colorPointLower       = new Color(0x606060);
+
+	/**
+	 * Fonts
+	 */
+	private Font fontObjectName  = new Font("Helvetica", Font.BOLD, 14);
+	private Font fontPlanetName  = new Font("Helvetica", Font.PLAIN, 14);
+	private Font fontInformation = new Font("Helvetica", Font.BOLD, 14);
+
+	/**
+	 * Object Name Drawing Flag
+	 */
+	boolean bPlanetName;
+	boolean bObjectName;
+	boolean bDistanceLabel;
+	boolean bDateLabel;
+
+	/**
+	 * Constructor
+	 */
+	public OrbitRenderer(Comet object, ATime atime) {
+		planetPos = new Xyz[9];
+                OrbitDisplay = new boolean[11];
+                SelectOrbits(OrbitDisplayDefault, OrbitDisplayDefault.length);
+		this.object = object;
+		this.objectOrbit = new CometOrbit(object, 120);
+		this.planetOrbit = new PlanetOrbit[9];
+		updatePlanetOrbit(atime);
+		// Set Initial Date
+		this.atime = atime;
+		setDate(this.atime);
+		// no name labels
+		bPlanetName = false;
+		bObjectName = false;
+		bDistanceLabel = true;
+		bDateLabel = true;
+	}
+
+	/**
+	 * Make Planet Orbit
+	 */
+	private void updatePlanetOrbit(ATime atime) {
+		for (int i = Planet.MERCURY; i <= Planet.PLUTO; i++) {
+			this.planetOrbit[i - Planet.MERCURY]
+				= new PlanetOrbit(i, atime, 48);
+		}
+		this.epochPlanetOrbit = atime.getJd();
+	}
+
+	/**
+	 * Horizontal Rotation Parameter Set
+	 */
+	public void setRotateHorz(int nRotateH) {
+		this.fRotateH = (double)nRotateH;
+	}
+
+	/**
+	 * Vertical Rotation Parameter Set
+	 */
+	public void setRotateVert(int nRotateV) {
+		this.fRotateV = (double)nRotateV;
+	}
+
+	/**
+	 * Zoom Parameter Set
+	 */
+	public void setZoom(int nZoom) {
+		this.fZoom = (double)nZoom;
+	}
+
+	/**
+	 * Date Parameter Set (makes the frame for the date and sets it)
+	 */
+	public void setDate(ATime atime) {
+		setFrame(makeFrame(atime));
+		if (pointLayer != null) {
+			pointLayer.setDate(atime);
+		}
+	}
+
+	/**
+	 * Make Frame for the Date (compute stage, may be called by a thread
+	 * other than that of render)
+	 */
+	public synchronized OrbitFrame makeFrame(ATime atime) {
+		OrbitInterpolator interpolator = this.interpolator;
+		boolean bInterp = (interpolator != null
+						   && interpolator.setDate(atime.getJd()));
+		Xyz objectPos = bInterp ? interpolator.getPos(OrbitInterpolator.OBJECT)
+								: null;
+		if (objectPos == null) {
+			objectPos = object.GetPos(atime.getJd());
+		}
+		Xyz planetPos[] = new Xyz[9];
+		for (int i = 0; i < 9; i++) {
+			planetPos[i] = bInterp ? interpolator.getPos(Planet.MERCURY+i)
+								   : null;
+			if (planetPos[i] == null) {
+				planetPos[i] = planetCache.getPos(Planet.MERCURY+i, atime);
+			}
+		}
+		// Equatorial(2000)->Ecliptic(DATE), kept while within half a node
+		if (mtxToEclFrame == null
+			|| Math.abs(epochToEclFrame - atime.getJd())
+			   > PrecessionCache.NODE_INTERVAL / 2) {
+			mtxToEclFrame   = PrecessionCache.getToEcliptic(atime.getJd());
+			epochToEclFrame = atime.getJd();
+		}
+		return new OrbitFrame(atime, objectPos, planetPos,
+							  mtxToEclFrame, epochToEclFrame);
+	}
+
+	/**
+	 * Frame Set (render stage)
+	 */
+	public void setFrame(OrbitFrame frame) {
+		this.atime = frame.getAtime();
+		this.objectPos = frame.getObjectPos();
+		for (int i = 0; i < 9; i++) {
+			planetPos[i] = frame.getPlanetPos(i);
+		}
+		this.mtxToEcl   = frame.getMatrixToEcl();
+		this.epochToEcl = frame.getEpochToEcl();
+	}
+
+	/**
+	 * Interpolator Set (null: none, exact positions at every date)
+	 */
+	public void setInterpolator(OrbitInterpolator interpolator) {
+		this.interpolator = interpolator;
+	}
+
+	/**
+	 * Planet Orbit Cache Set (null: none, the orbits are made for the
+	 * date when it is more than 5 years from them)
+	 */
+	public void setPlanetOrbitCache(PlanetOrbitCache planetOrbitCache) {
+		this.planetOrbitCache = planetOrbitCache;
+	}
+
+	/**
+	 * Adaptive Tessellation of Orbits ON/OFF
+	 */
+	public void setAdaptiveOrbit(boolean bAdaptiveOrbit) {
+		this.bAdaptiveOrbit = bAdaptiveOrbit;
+		imageLayer = null;
+	}
+	public long getOrbitPointCount() {
+		return nOrbitPoints;
+	}
+
+	/**
+	 * Layer Cache ON/OFF
+	 * (the orbits are drawn under the bodies of all planets if ON)
+	 */
+	public void setLayerCache(boolean bLayerCache) {
+		this.bLayerCache = bLayerCache;
+		if (!bLayerCache) {
+			imageLayer = null;
+		}
+	}
+	public long getLayerDrawnCount() {
+		return nLayerDrawn;
+	}
+
+	/**
+	 * Point Layer Set (null: none)
+	 */
+	public void setPointLayer(OrbitPointLayer pointLayer) {
+		this.pointLayer = pointLayer;
+		if (pointLayer != null && atime != null) {
+			pointLayer.setDate(atime);
+		}
+	}
+
+	/**
+	 * Switch Planet Name ON/OFF
+	 */
+	public void switchPlanetName(boolean bPlanetName) {
+		this.bPlanetName = bPlanetName;
+	}
+
+
+        /**
+         * Select Orbits
+         */
+        public void SelectOrbits(boolean OrbitDisplay[], int OrbitCount) {
+           for (int i=0; i< OrbitCount; i++)
+           {
+                this.OrbitDisplay[i] = OrbitDisplay[i];
+           }
+        }
+
+        /**
+         * Select Center Object
+         */
+        public void SelectCenterObject(int CenterObjectSelected) {
+                this.CenterObjectSelected = CenterObjectSelected;
+        }
+
+	/**
+	 * Switch Object Name ON/OFF
+	 */
+	public void switchObjectName(boolean bObjectName) {
+		this.bObjectName = bObjectName;
+	}
+
+	/**
+	 * Switch Distance Label ON/OFF
+	 */
+	public void switchDistanceLabel(boolean bDistanceLabel) {
+		this.bDistanceLabel = bDistanceLabel;
+	}
+
+	/**
+	 * Switch Date Label ON/OFF
+	 */
+	public void switchDateLabel(boolean bDateLabel) {
+		this.bDateLabel = bDateLabel;
+	}
+
+	/**
+	 * Get (X,Y) on Canvas from Xyz (result is stored in point)
+	 */
+	private Point getDrawPoint(Xyz xyz, Point point) {
+		// 600 means 5...fZoom...100 -> 120AU...Width...6AU
+		double fMul = this.fZoom * (double)sizeCanvas.width / 600.0
+							* (1.0 + xyz.fZ / 250.0);		// Parse
+		point.x = this.nX0 + (int)Math.round(xyz.fX * fMul);
+		point.y = this.nY0 - (int)Math.round(xyz.fY * fMul);
+		return point;
+	}
+
+	/**
+	 * Project Orbit Points onto Canvas
+	 * (results are stored in nPointX[], nPointY[] and bUpper[])
+	 */
+	private void projectOrbit(double fX[], double fY[], double fZ[],
+							  int nCount) {
+		if (nPointX.length < nCount) {
+			nPointX = new int[nCount];
+			nPointY = new int[nCount];
+			bUpper  = new boolean[nCount];
+		}
+		Matrix mtx = this.mtxProj;
+		Matrix mtxEcl = this.mtxToEcl;
+		// 600 means 5...fZoom...100 -> 120AU...Width...6AU
+		double fMul0 = this.fZoom * (double)sizeCanvas.width / 600.0;
+		for (int i = 0; i < nCount; i++) {
+			double fX0 = fX[i];
+			double fY0 = fY[i];
+			double fZ0 = fZ[i];
+			double fPx = mtx.fA11 * fX0 + mtx.fA12 * fY0 + mtx.fA13 * fZ0;
+			double fPy = mtx.fA21 * fX0 + mtx.fA22 * fY0 + mtx.fA23 * fZ0;
+			double fPz = mtx.fA31 * fX0 + mtx.fA32 * fY0 + mtx.fA33 * fZ0;
+			double fMul = fMul0 * (1.0 + fPz / 250.0);		// Parse
+			nPointX[i] = this.nX0 + (int)Math.round(fPx * fMul);
+			nPointY[i] = this.nY0 - (int)Math.round(fPy * fMul);
+			// Z in Ecliptic Coordinates decides upper or lower
+			bUpper[i] = (mtxEcl.fA31 * fX0 + mtxEcl.fA32 * fY0
+						 + mtxEcl.fA33 * fZ0 >= 0.0);
+		}
+	}
+
+	/**
+	 * Draw Projected Orbit Points from nStart to nEnd as one Polyline
+	 */
+	private void drawOrbitRun(Graphics g, int nStart, int nEnd) {
+		int nCount = nEnd - nStart + 1;
+		if (nStart == 0) {
+			g.drawPolyline(nPointX, nPointY, nCount);
+			return;
+		}
+		if (nRunX.length < nCount) {
+			nRunX = new int[nPointX.length];
+			nRunY = new int[nPointY.length];
+		}
+		System.arraycopy(nPointX, nStart, nRunX, 0, nCount);
+		System.arraycopy(nPointY, nStart, nRunY, 0, nCount);
+		g.drawPolyline(nRunX, nRunY, nCount);
+	}
+
+	/**
+	 * Draw Orbit
+	 * (segment i-1 -> i is colored by point i, and each run of segments
+	 *  with the same color is drawn as one polyline)
+	 */
+	private void drawOrbit(Graphics g, double fX[], double fY[], double fZ[],
+						   int nCount, Color colorUpper, Color colorLower) {
+		projectOrbit(fX, fY, fZ, nCount);
+		drawOrbitRuns(g, nCount, colorUpper, colorLower);
+	}
+
+	/**
+	 * Draw Projected Orbit Points (nPointX[], nPointY[], bUpper[]) as
+	 * Polylines of Upper and Lower Colors
+	 */
+	private void drawOrbitRuns(Graphics g, int nCount,
+							   Color colorUpper, Color colorLower) {
+		int nStart = 0;
+		for (int i = 1; i < nCount; i++) {
+			if (i == nCount - 1 || bUpper[i + 1] != bUpper[i]) {
+				if (bUpper[i]) {
+					g.setColor(colorUpper);
+				} else {
+					g.setColor(colorLower);
+				}
+				drawOrbitRun(g, nStart, i);
+				nStart = i;
+			}
+		}
+	}
+
+	/**
+	 * Draw Orbit Curve Tessellated Adaptively
+	 * (from nOrbitSegments segments by the parameter, each segment is
+	 *  halved while its midpoint on the canvas is farther than
+	 *  fOrbitTolerance pixels from its chord, unless it is off the canvas)
+	 */
+	private void drawOrbitCurve(Graphics g, OrbitCurve curve,
+								Color colorUpper, Color colorLower) {
+		nCurvePoints = 0;
+		double fU0 = curve.getParamMin();
+		double fU1 = curve.getParamMax();
+		projectCurvePoint(curve, fU0);
+		double fUa = fU0, fXa = fCurveX, fYa = fCurveY;
+		addCurvePoint(fXa, fYa, bCurveUpper);
+		for (int i = 1; i <= nOrbitSegments; i++) {
+			double fUb = (i == nOrbitSegments) ? fU1
+				: fU0 + (fU1 - fU0) * i / nOrbitSegments;
+			projectCurvePoint(curve, fUb);
+			double fXb = fCurveX, fYb = fCurveY;
+			divideCurve(curve, fUa, fXa, fYa, fUb, fXb, fYb, bCurveUpper, 0);
+			fUa = fUb;
+			fXa = fXb;
+			fYa = fYb;
+		}
+		nOrbitPoints += nCurvePoints;
+		drawOrbitRuns(g, nCurvePoints, colorUpper, colorLower);
+	}
+
+	/**
+	 * Divide Segment from fUa to fUb of Orbit Curve
+	 * (adds the points after a, up to b)
+	 */
+	private void divideCurve(OrbitCurve curve,
+							 double fUa, double fXa, double fYa,
+							 double fUb, double fXb, double fYb,
+							 boolean bUpperB, int nDepth) {
+		if (nDepth < nOrbitMaxDepth) {
+			double fUm = 0.5 * (fUa + fUb);
+			projectCurvePoint(curve, fUm);
+			double fXm = fCurveX, fYm = fCurveY;
+			boolean bUpperM = bCurveUpper;
+			// distance of the midpoint from the chord
+			double fDx = fXb - fXa, fDy = fYb - fYa;
+			double fLen = Math.sqrt(fDx * fDx + fDy * fDy);
+			double fDev = (fLen > 0.0)
+				? Math.abs((fXm - fXa) * fDy - (fYm - fYa) * fDx) / fLen
+				: Math.sqrt((fXm - fXa) * (fXm - fXa)
+							+ (fYm - fYa) * (fYm - fYa));
+			// off the canvas, with a margin for the bulge of the arc
+			double fMargin = 2.0 * fDev + 1.0;
+			boolean bOff
+				= Math.max(fXa, Math.max(fXm, fXb)) < -fMargin
+				|| Math.min(fXa, Math.min(fXm, fXb))
+					> nDrawWidth + fMargin
+				|| Math.max(fYa, Math.max(fYm, fYb)) < -fMargin
+				|| Math.min(fYa, Math.min(fYm, fYb))
+					> nDrawHeight + fMargin;
+			if (fDev > fOrbitTolerance && !bOff) {
+				divideCurve(curve, fUa, fXa, fYa, fUm, fXm, fYm, bUpperM,
+							nDepth + 1);
+				divideCurve(curve, fUm, fXm, fYm, fUb, fXb, fYb, bUpperB,
+							nDepth + 1);
+				return;
+			}
+		}
+		addCurvePoint(fXb, fYb, bUpperB);
+	}
+
+	/**
+	 * Project Point of Orbit Curve onto Canvas
+	 * (results are stored in fCurveX, fCurveY and bCurveUpper)
+	 */
+	private void projectCurvePoint(OrbitCurve curve, double fU) {
+		Xyz xyz = curve.getPoint(fU, xyzCurve);
+		Matrix mtx = this.mtxProj;
+		Matrix mtxEcl = this.mtxToEcl;
+		double fPx = mtx.fA11 * xyz.fX + mtx.fA12 * xyz.fY + mtx.fA13 * xyz.fZ;
+		double fPy = mtx.fA21 * xyz.fX + mtx.fA22 * xyz.fY + mtx.fA23 * xyz.fZ;
+		double fPz = mtx.fA31 * xyz.fX + mtx.fA32 * xyz.fY + mtx.fA33 * xyz.fZ;
+		double fMul = this.fZoom * (double)sizeCanvas.width / 600.0
+			* (1.0 + fPz / 250.0);		// Parse
+		fCurveX = this.nX0 + fPx * fMul;
+		fCurveY = this.nY0 - fPy * fMul;
+		bCurveUpper = (mtxEcl.fA31 * xyz.fX + mtxEcl.fA32 * xyz.fY
+					   + mtxEcl.fA33 * xyz.fZ >= 0.0);
+	}
+
+	/**
+	 * Add Point to nPointX[], nPointY[] and bUpper[]
+	 */
+	private void addCurvePoint(double fX, double fY, boolean bUpperPoint) {
+		if (nCurvePoints == nPointX.length) {
+			int nNew = Math.max(nPointX.length * 2, 256);
+			nPointX = java.util.Arrays.copyOf(nPointX, nNew);
+			nPointY = java.util.Arrays.copyOf(nPointY, nNew);
+			bUpper  = java.util.Arrays.copyOf(bUpper,  nNew);
+		}
+		nPointX[nCurvePoints] = (int)Math.round(fX);
+		nPointY[nCurvePoints] = (int)Math.round(fY);
+		bUpper[nCurvePoints]  = bUpperPoint;
+		nCurvePoints++;
+	}
+
+	/**
+	 * Draw Planets' Orbit
+	 */
+	private void drawPlanetOrbit(Graphics g, PlanetOrbit planetOrbit,
+						 Color colorUpper, Color colorLower) {
+		drawOrbit(g, planetOrbit.getArrayX(), planetOrbit.getArrayY(),
+				  planetOrbit.getArrayZ(), planetOrbit.getDivision() + 1,
+				  colorUpper, colorLower);
+	}
+
+        /**
+         * Draw Earth's Orbit
+         */
+        private void drawEarthOrbit(Graphics g, PlanetOrbit planetOrbit,
+                                                 Color colorUpper, Color colorLower) {
+                drawOrbit(g, planetOrbit.getArrayX(), planetOrbit.getArrayY(),
+                          planetOrbit.getArrayZ(), planetOrbit.getDivision() + 1,
+                          colorUpper, colorUpper);
+        }
+
+	/**
+	 * Draw Planets' Body
+	 */
+	private void drawPlanetBody(Graphics og, Xyz planetPos, String strName) {
+		Xyz xyz = planetPos.rotateInto(this.mtxRotate, xyzWork);
+		Point point = getDrawPoint(xyz, point1);
+		og.setColor(colorPlanet);
+		og.fillArc(point.x - 2, point.y - 2, 5, 5, 0, 360);
+		if (bPlanetName) {
+			og.setColor(colorPlanetName);
+			og.drawString(strName, point.x + 5, point.y);
+		}
+	}
+
+	/**
+	 * Draw Ecliptic Axis
+	 */
+	private void drawEclipticAxis(Graphics og) {
+		Xyz xyz = xyzWork;
+		Point point = point1;
+
+		og.setColor(colorAxisMinus);
+		// -X
+		xyz.set(-50.0, 0.0,  0.0).rotateInto(this.mtxRotate, xyz);
+		getDrawPoint(xyz, point);
+		og.drawLine(this.nX0, this.nY0, point.x, point.y);
+
+		// -Z
+		xyz.set(0.0, 00.0, -50.0).rotateInto(this.mtxRotate, xyz);
+		getDrawPoint(xyz, point);
+		og.drawLine(this.nX0, this.nY0, point.x, point.y);
+
+		og.setColor(colorAxisPlus);
+		// +X
+		xyz.set( 50.0, 0.0,  0.0).rotateInto(this.mtxRotate, xyz);
+		getDrawPoint(xyz, point);
+		og.drawLine(this.nX0, this.nY0, point.x, point.y);
+		// +Z
+		xyz.set(0.0, 00.0,  50.0).rotateInto(this.mtxRotate, xyz);
+		getDrawPoint(xyz, point);
+		og.drawLine(this.nX0, this.nY0, point.x, point.y);
+	}
+
+	/**
+	 * Draw Point Layer
+	 * (plotted into the pixels if the image is known, or by og)
+	 */
+	private void drawPointLayer(Graphics og) {
+		int nCount = pointLayer.getCount();
+		double fX[] = pointLayer.getArrayX();
+		projectOrbit(fX, pointLayer.getArrayY(), pointLayer.getArrayZ(),
+					 nCount);
+		int nWidth  = sizeCanvas.width;
+		int nHeight = sizeCanvas.height;
+		BufferedImage image = this.imageTarget;
+		if (image == null
+			|| (image.getType() != BufferedImage.TYPE_INT_RGB
+				&& image.getType() != BufferedImage.TYPE_INT_ARGB)
+			|| image.getRaster().getParent() != null) {
+			for (int i = 0; i < nCount; i++) {
+				if (Double.isNaN(fX[i])) {
+					continue;
+				}
+				og.setColor(bUpper[i] ? colorPointUpper : colorPointLower);
+				og.fillRect(nPointX[i], nPointY[i], 1, 1);
+			}
+			return;
+		}
+		int nPixel[] = ((DataBufferInt)image.getRaster().getDataBuffer())
+			.getData();
+		int nScan = ((SinglePixelPackedSampleModel)image.getSampleModel())
+			.getScanlineStride();
+		int nRgbUpper = colorPointUpper.getRGB();
+		int nRgbLower = colorPointLower.getRGB();
+		nWidth  = Math.min(nWidth,  image.getWidth());
+		nHeight = Math.min(nHeight, image.getHeight());
+		for (int i = 0; i < nCount; i++) {
+			int x = nPointX[i];
+			int y = nPointY[i];
+			if (x < 0 || x >= nWidth || y < 0 || y >= nHeight
+				|| Double.isNaN(fX[i])) {
+				continue;
+			}
+			nPixel[y * nScan + x] = bUpper[i] ? nRgbUpper : nRgbLower;
+		}
+	}
+
+	/**
+	 * Draw Frame, Ecliptic Axis and Sun
+	 */
+	private void drawBackground(Graphics og) {
+		og.setColor(Color.black);
+		og.fillRect(0, 0, nDrawWidth - 1, nDrawHeight - 1);
+		drawEclipticAxis(og);
+		og.setColor(colorSun);
+		og.fillArc(this.nX0 - 2, this.nY0 - 2, 5, 5, 0, 360);
+	}
+
+	/**
+	 * Draw Orbit of Object
+	 */
+	private void drawObjectOrbit(Graphics og) {
+		if (!(OrbitDisplay[0] || OrbitDisplay[1])) {
+			return;
+		}
+		if (bAdaptiveOrbit) {
+			drawOrbitCurve(og, objectOrbit,
+						   colorObjectOrbitUpper, colorObjectOrbitLower);
+		} else {
+			drawOrbit(og, objectOrbit.getArrayX(), objectOrbit.getArrayY(),
+					  objectOrbit.getArrayZ(), objectOrbit.getDivision() + 1,
+					  colorObjectOrbitUpper, colorObjectOrbitLower);
+		}
+	}
+
+	/**
+	 * Draw Object Body
+	 */
+	private void drawObjectBody(Graphics og) {
+		Xyz xyz = this.objectPos.rotateInto(this.mtxProj, xyzWork);
+		Point point = getDrawPoint(xyz, point1);
+		og.setColor(colorObject);
+		og.fillArc(point.x - 2, point.y - 2, 5, 5, 0, 360);
+		og.setFont(fontObjectName);
+		if (bObjectName) {
+			og.setColor(colorObjectName);
+			og.drawString(object.getName(), point.x + 5, point.y);
+		}
+	}
+
+	/**
+	 * Draw Orbits (bOrbit) and Bodies (bBody) of Planets from Pluto to
+	 * Mercury (the inner planets only if the zoom is large enough)
+	 */
+	private void drawPlanets(Graphics og, boolean bOrbit, boolean bBody) {
+		for (int i = Planet.PLUTO; i >= Planet.MERCURY; i--) {
+			int n = i - Planet.MERCURY;
+			if (i < Planet.JUPITER && fZoom * fInnerPlanetA[n] < 7.5) {
+				continue;
+			}
+			if (bOrbit && (OrbitDisplay[0] || OrbitDisplay[n + 2])) {
+				if (bAdaptiveOrbit) {
+					drawOrbitCurve(og, planetOrbit[n], colorPlanetOrbitUpper,
+								   (i == Planet.EARTH) ? colorPlanetOrbitUpper
+								   : colorPlanetOrbitLower);
+				} else if (i == Planet.EARTH) {
+					drawEarthOrbit(og, planetOrbit[n], colorPlanetOrbitUpper,
+								   colorPlanetOrbitUpper);
+				} else {
+					drawPlanetOrbit(og, planetOrbit[n], colorPlanetOrbitUpper,
+									colorPlanetOrbitLower);
+				}
+			}
+			if (bBody) {
+				drawPlanetBody(og, planetPos[n], strPlanetName[n]);
+			}
+		}
+	}
+
+	/**
+	 * Layer Cache is Drawn for the Present View
+	 */
+	private boolean isLayerValid() {
+		return imageLayer != null
+			&& imageLayer.getWidth()  == sizeCanvas.width  + 2 * nLayerMargin
+			&& imageLayer.getHeight() == sizeCanvas.height + 2 * nLayerMargin
+			&& layerRotateH == fRotateH && layerRotateV == fRotateV
+			&& layerZoom == fZoom
+			&& Math.abs(nX0 - layerX0) <= nLayerMargin
+			&& Math.abs(nY0 - layerY0) <= nLayerMargin
+			&& layerMtxToEcl == mtxToEcl
+			&& layerEpochPlanetOrbit == epochPlanetOrbit
+			&& java.util.Arrays.equals(layerOrbitDisplay, OrbitDisplay);
+	}
+
+	/**
+	 * Draw Frame, Axis, Sun and Orbits into the Layer Cache
+	 * (around the present origin, with the margin)
+	 */
+	private void drawLayer() {
+		int nMargin = Math.max(sizeCanvas.width, sizeCanvas.height) / 4;
+		int nWidth  = sizeCanvas.width  + 2 * nMargin;
+		int nHeight = sizeCanvas.height + 2 * nMargin;
+		if (imageLayer == null
+			|| imageLayer.getWidth()  != nWidth
+			|| imageLayer.getHeight() != nHeight) {
+			imageLayer = new BufferedImage(nWidth, nHeight,
+										   BufferedImage.TYPE_INT_RGB);
+		}
+		int nX0 = this.nX0, nY0 = this.nY0;
+		Graphics2D g = imageLayer.createGraphics();
+		try {
+			this.nX0 = nX0 + nMargin;
+			this.nY0 = nY0 + nMargin;
+			nDrawWidth  = nWidth;
+			nDrawHeight = nHeight;
+			drawBackground(g);
+			drawObjectOrbit(g);
+			drawPlanets(g, true, false);
+		} finally {
+			g.dispose();
+			this.nX0 = nX0;
+			this.nY0 = nY0;
+			nDrawWidth  = sizeCanvas.width;
+			nDrawHeight = sizeCanvas.height;
+		}
+		nLayerMargin = nMargin;
+		layerRotateH = fRotateH;
+		layerRotateV = fRotateV;
+		layerZoom    = fZoom;
+		layerX0      = nX0;
+		layerY0      = nY0;
+		layerMtxToEcl = mtxToEcl;
+		layerEpochPlanetOrbit = epochPlanetOrbit;
+		layerOrbitDisplay = OrbitDisplay.clone();
+		nLayerDrawn++;
+	}
+
+	/**
+	 * Render the Scene into the Image
+	 * (the point layer is plotted directly into the pixels)
+	 */
+	public void render(BufferedImage image) {
+		Graphics2D g = image.createGraphics();
+		this.imageTarget = image;
+		try {
+			render(g, image.getWidth(), image.getHeight());
+		} finally {
+			this.imageTarget = null;
+			g.dispose();
+		}
+	}
+
+	/**
+	 * Render the Scene into the Image (Consumer)
+	 */
+	public void accept(BufferedImage image) {
+		render(image);
+	}
+
+	/**
+	 * Render the Scene into og (nWidth x nHeight)
+	 */
+	public void render(Graphics og, int nWidth, int nHeight) {
+                 Point point3;
+                 Xyz xyz, xyz1;
+
+		this.sizeCanvas.width  = nWidth;
+		this.sizeCanvas.height = nHeight;
+		this.nDrawWidth  = nWidth;
+		this.nDrawHeight = nHeight;
+
+		// Calculate Drawing Parameter
+		mtxRotH.setRotateZ(this.fRotateH * Math.PI / 180.0);
+		mtxRotV.setRotateX(this.fRotateV * Math.PI / 180.0);
+		mtxRotV.mulInto(mtxRotH, this.mtxRotate);
+
+		this.nX0 = this.sizeCanvas.width  / 2;
+		this.nY0 = this.sizeCanvas.height / 2;
+
+		this.mtxRotate.mulInto(this.mtxToEcl, this.mtxProj);
+
+                // If center object is comet/asteroid
+                if (CenterObjectSelected == 1 )   {
+                   xyz = this.objectPos.rotateInto(this.mtxProj, xyzWork);
+                   point3 = getDrawPoint(xyz, point1);
+
+                   this.nX0 = this.sizeCanvas.width - point3.x;
+                   this.nY0 = this.sizeCanvas.height - point3.y;
+                }
+                // If center object is one of the planets
+                else if (CenterObjectSelected > 1 )   {
+                   xyz = planetPos[CenterObjectSelected -2].rotateInto(this.mtxRotate, xyzWork);
+
+                   point3 = getDrawPoint(xyz, point1);
+
+                   this.nX0 = this.sizeCanvas.width - point3.x;
+                   this.nY0 = this.sizeCanvas.height - point3.y;
+                }
+
+		//  Orbits of Planets for the Date
+		if (planetOrbitCache != null) {
+			// those of the last date until made for this date
+			PlanetOrbit orbits[] = planetOrbitCache.getOrbits(atime.getJd());
+			if (orbits != null && orbits != planetOrbit) {
+				planetOrbit = orbits;
+				epochPlanetOrbit = orbits[0].getEpoch();
+			}
+		} else if (Math.abs(epochPlanetOrbit - atime.getJd())
+				   > 365.2422 * 5) {
+			updatePlanetOrbit(atime);
+		}
+
+		if (bLayerCache) {
+			// Orbits and Axis from the Layer (redrawn if the view changed)
+			if (!isLayerValid()) {
+				drawLayer();
+			}
+			og.drawImage(imageLayer, nX0 - layerX0 - nLayerMargin,
+						 nY0 - layerY0 - nLayerMargin, null);
+		} else {
+			drawBackground(og);
+			drawObjectOrbit(og);
+			drawPlanets(og, true, false);
+		}
+		// Point Layer above the Orbits, and Bodies
+		if (pointLayer != null) {
+			drawPointLayer(og);
+		}
+		drawObjectBody(og);
+		og.setFont(fontPlanetName);
+		drawPlanets(og, false, true);
+
+		Point point1 = this.point1;
+		// Information
+		og.setFont(fontInformation);
+		og.setColor(colorInformation);
+		FontMetrics fm = og.getFontMetrics();
+
+		// Object Name String
+		point1.x = fm.charWidth('A');
+//		point1.y = this.sizeCanvas.height - fm.getDescent() - fm.getHeight() / 3;
+		point1.y = 2 * fm.charWidth('A');
+		og.drawString(object.getName(), point1.x, point1.y);
+
+		if (bDistanceLabel) {
+			// Earth & Sun Distance
+			double edistance, sdistance;
+			double xdiff, ydiff, zdiff;
+//			BigDecimal a,v;
+			String strDist;
+			xyz  = this.objectPos.rotateInto(this.mtxProj, xyzWork);
+			xyz1 = planetPos[2].rotateInto(this.mtxRotate, xyzWork1);
+			sdistance = Math.sqrt((xyz.fX * xyz.fX) + (xyz.fY * xyz.fY) +
+								  (xyz.fZ * xyz.fZ)) + .0005;
+			sdistance = (int)(sdistance * 1000.0)/1000.0;
+			xdiff = xyz.fX - xyz1.fX;
+			ydiff = xyz.fY - xyz1.fY;
+			zdiff = xyz.fZ - xyz1.fZ;
+			edistance = Math.sqrt((xdiff * xdiff) + (ydiff * ydiff) +
+								  (zdiff * zdiff)) + .0005;
+			edistance = (int)(edistance * 1000.0)/1000.0;
+//			a = new BigDecimal (edistance);
+//			v = a.setScale (3, BigDecimal.ROUND_HALF_UP);
+			strDist = "Earth Distance: " + edistance + " AU";
+			point1.x = fm.charWidth('A');
+//			point1.y = this.sizeCanvas.height - fm.getDescent() - fm.getHeight() / 3;
+			point1.y = this.sizeCanvas.height - fm.getDescent() - fm.getHeight();
+			og.drawString(strDist, point1.x, point1.y);
+
+//			a = new BigDecimal (sdistance);
+//			v = a.setScale (3, BigDecimal.ROUND_HALF_UP);
+			strDist = "Sun Distance  : " + sdistance + " AU";
+			point1.x = fm.charWidth('A');
+			point1.y = this.sizeCanvas.height - fm.getDescent() - fm.getHeight() / 3;
+			og.drawString(strDist, point1.x, point1.y);
+		}
+
+		if (bDateLabel) {
+			// Date String
+			String strDate = ATime.getMonthAbbr(atime.getMonth())
+				+ " " + atime.getDay() + ", " + atime.getYear();
+			point1.x = this.sizeCanvas.width  - fm.stringWidth(strDate)
+				- fm.charWidth('A');
+			point1.y = this.sizeCanvas.height - fm.getDescent() - fm.getHeight() / 3;
+//			point1.y = 2 * fm.charWidth('A');
+			og.drawString(strDate, point1.x, point1.y);
+		}
+
+		// Border
+		og.clearRect(0,                    sizeCanvas.height - 1,
+					 sizeCanvas.width,     sizeCanvas.height     );
+		og.clearRect(sizeCanvas.width - 1, 0,
+					 sizeCanvas.width,     sizeCanvas.height     );
+	}
+}
@@ -38,6 +38,7 @@
 import java.applet.*;
 import java.awt.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.math.*;
 import astro.*;
 
@@ -74,12 +75,13 @@ public class OrbitViewer extends java.applet.Applet {
 	 * Player thread
 	 */
 	private OrbitPlayer		orbitPlayer;
-	Thread					playerThread = null;
+	OrbitInterpolator		interpolator;
 
 	/**
-	 * Current Time Setting
+	 * Current Time Setting (replaced, never changed in place, since the
+	 * player reads it on its own thread)
 	 */
-	private ATime atime;
+	private volatile ATime atime;
 
 	/**
 	 * Time step
@@ -101,7 +103,7 @@ public class OrbitViewer extends java.applet.Applet {
 		new TimeSpan(0, 6,  0, 0, 0, 0.0),
 		new TimeSpan(1, 0,  0, 0, 0, 0.0),
 	};
-	public TimeSpan timeStep = timeStepSpan[1];
+	public volatile TimeSpan timeStep = timeStepSpan[1];
 	public int      playDirection = ATime.F_INCTIME;
 
         /**
@@ -186,96 +188,19 @@ public class OrbitViewer extends java.applet.Applet {
 		return info;
 	}
 
-	/**
-	 * Convert time in format "YYYYMMDD.D" to ATime
-	 */
-	private ATime ymdStringToAtime(String strYmd) {
-		double fYmd = Double.valueOf(strYmd).doubleValue();
-		int nYear = (int)Math.floor(fYmd / 10000.0);
-		fYmd -= (double)nYear * 10000.0;
-		int nMonth = (int)Math.floor(fYmd / 100.0);
-		double fDay = fYmd - (double)nMonth * 100.0;
-		return new ATime(nYear, nMonth, fDay, 0.0);
-	}
-
-	/**
-	 * Get required double parameter
-	 */
-	private double getRequiredParameter(String strName) {
-		String strValue = getParameter(strName);
-		if (strValue == null) {
-			throw new Error("Required parameter '"
-							   + strName + "' not found.");
-		}
-		return Double.valueOf(strValue).doubleValue();
-	}
-
 	/**
 	 * Get orbital elements of the object from applet parameter
 	 */
 	private Comet getObject() {
-		String strName = getParameter("Name");
-		if (strName == null) {
-			strName = "Object";
-		}
-		double e, q;
-		ATime T;
-		String strParam;
-		if ((strParam = getParameter("e")) == null) {
-			throw new Error("required parameter 'e' not found.");
-		}
-		e = Double.valueOf(strParam).doubleValue();
-		if ((strParam = getParameter("T")) != null) {
-			T = ymdStringToAtime(strParam);
-			if ((strParam = getParameter("q")) != null) {
-				q = Double.valueOf(strParam).doubleValue();
-			} else if ((strParam = getParameter("a")) != null) {
-				double a = Double.valueOf(strParam).doubleValue();
-				if (Math.abs(e - 1.0) < 1.0e-15) {
-					throw new Error("Orbit is parabolic, but 'q' not found.");
-				}
-				q = a * (1.0 - e);
-			} else {
-				throw new Error("Required parameter 'q' or 'a' not found.");
-			}
-		} else if ((strParam = getParameter("Epoch")) != null) {
-			ATime Epoch = ymdStringToAtime(strParam);
-			if (e > 0.95) {
-				throw new
-					Error("Orbit is nearly parabolic, but 'T' not found.");
-			}
-			double a;
-			if ((strParam = getParameter("a")) != null) {
-				a = Double.valueOf(strParam).doubleValue();
-				q = a * (1.0 - e);
-			} else if ((strParam = getParameter("q")) != null) {
-				q = Double.valueOf(strParam).doubleValue();
-				a = q / (1.0 - e);
-			} else {
-				throw new Error("Required parameter 'q' or 'a' not found.");
-			}
-			if (q < 1.0e-15) {
-				throw new Error("Too small perihelion distance.");
+		Hashtable<String, String> param = new Hashtable<String, String>();
+		String info[][] = getParameterInfo();
+		for (int i = 0; i < info.length; i++) {
+			String strValue = getParameter(info[i][0]);
+			if (strValue != null) {
+				param.put(info[i][0], strValue);
 			}
-			double n = Astro.GAUSS / (a * Math.sqrt(a));
-			if ((strParam = getParameter("M")) == null) {
-				throw new Error("Required parameter 'M' not found.");
-			}
-			double M = Double.valueOf(strParam).doubleValue()
-				* Math.PI / 180.0;
-			if (M < Math.PI) {
-				T = new ATime(Epoch.getJd() - M / n, 0.0);
-			} else {
-				T = new ATime(Epoch.getJd() + (Math.PI*2.0 - M) / n, 0.0);
-			}
-		} else {
-			throw new Error("Required parameter 'T' or 'Epoch' not found.");
 		}
-		return new Comet(strName, T.getJd(), e, q,
-						 getRequiredParameter("Peri")*Math.PI/180.0,
-						 getRequiredParameter("Node")*Math.PI/180.0,
-						 getRequiredParameter("Incl")*Math.PI/180.0,
-						 getRequiredParameter("Eqnx"));
+		return OrbitParam.getObject(param);
 	}
 
 	/**
@@ -290,15 +215,6 @@ public class OrbitViewer extends java.applet.Applet {
 		return atime;
 	}
 
-	/**
-	 * Set date and redraw canvas
-	 */
-	private void setNewDate() {
-		this.atime = limitATime(this.atime);
-		orbitCanvas.setDate(this.atime);
-		orbitCanvas.repaint();
-	}
-
 	/**
 	 * OrbitPlayer interface
 	 */
@@ -306,10 +222,20 @@ public class OrbitViewer extends java.applet.Applet {
 		return atime;
 	}
 	public void setNewDate(ATime atime) {
-		this.atime = limitATime(atime);
-		orbitCanvas.setDate(this.atime);
+		atime = limitATime(atime);
+		this.atime = atime;
+		orbitCanvas.setDate(atime);
 		orbitCanvas.repaint();
 	}
+	public void setInterpolation(boolean bInterpolation) {
+		if (bInterpolation) {
+			orbitCanvas.setInterpolator(interpolator);
+		} else {
+			// dates set by the step buttons or the dialog are exact
+			orbitCanvas.setInterpolator(null);
+			interpolator.clear();
+		}
+	}
 
 	/**
 	 * Initialization of applet
@@ -329,13 +255,14 @@ public class OrbitViewer extends java.applet.Applet {
 		Comet object = getObject();
 		String strParam;
 		if ((strParam = getParameter("Date")) != null) {
-			this.atime = ymdStringToAtime(strParam);
+			this.atime = OrbitParam.ymdStringToAtime(strParam);
 		} else {
 			Date date = new Date();
 			this.atime = new ATime(date.getYear() + 1900, date.getMonth() + 1,
 								   (double)date.getDate(), 0.0);
 		}
 		orbitCanvas = new OrbitCanvas(object, this.atime);
+		interpolator = new OrbitInterpolator(object);
 		gbcMainPanel.weightx = 1.0;
 		gbcMainPanel.weighty = 1.0;
 		gbcMainPanel.gridwidth = GridBagConstraints.RELATIVE;
@@ -653,9 +580,8 @@ public class OrbitViewer extends java.applet.Applet {
 		gbl.setConstraints(ctrlPanel, gbc);
 		add(ctrlPanel);
 
-		// Player Thread
+		// Player
 		orbitPlayer = new OrbitPlayer(this);
-		playerThread = null;
 	}
 
 	/**
@@ -673,9 +599,8 @@ public class OrbitViewer extends java.applet.Applet {
 			dateDialog.dispose();
 			endDateDialog(null);
 		}
-		if (playerThread != null) {
-			playerThread.stop();
-			playerThread = null;
+		if (orbitPlayer.isPlaying()) {
+			orbitPlayer.stop();
 			buttonDate.enable();
 		}
 	}
@@ -684,6 +609,7 @@ public class OrbitViewer extends java.applet.Applet {
 	 * Destroy the applet
 	 */
 	public void destroy() {
+		orbitPlayer.shutdown();
 		removeAll();
 	}
 
@@ -714,44 +640,27 @@ public class OrbitViewer extends java.applet.Applet {
 				buttonDate.disable();
 				return true;
 			} else if (evt.target == buttonForPlay) {		// ForPlay
-				if (playerThread != null
-					&&  playDirection != ATime.F_INCTIME) {
-					playerThread.stop();
-					playerThread = null;
-				}
-				if (playerThread == null) {
-					buttonDate.disable();
-					playDirection = ATime.F_INCTIME;
-					playerThread = new Thread(orbitPlayer);
-					playerThread.setPriority(Thread.MIN_PRIORITY);
-					playerThread.start();
-				}
+				buttonDate.disable();
+				playDirection = ATime.F_INCTIME;
+				orbitPlayer.play(playDirection);
 			} else if (evt.target == buttonRevPlay) {		// RevPlay
-				if (playerThread != null
-					&&  playDirection != ATime.F_DECTIME) {
-					playerThread.stop();
-					playerThread = null;
-				}
-				if (playerThread == null) {
-					buttonDate.disable();
-					playDirection = ATime.F_DECTIME;
-					playerThread = new Thread(orbitPlayer);
-					playerThread.setPriority(Thread.MIN_PRIORITY);
-					playerThread.start();
-				}
+				buttonDate.disable();
+				playDirection = ATime.F_DECTIME;
+				orbitPlayer.play(playDirection);
 			} else if (evt.target == buttonStop) {			// Stop
-				if (playerThread != null) {
-					playerThread.stop();
-					playerThread = null;
+				if (orbitPlayer.isPlaying()) {
+					orbitPlayer.stop();
 					buttonDate.enable();
 				}
 			} else if (evt.target == buttonForStep) {		// +1 Step
-				atime.changeDate(timeStep, ATime.F_INCTIME);
-				setNewDate();
+				ATime atimeNew = new ATime(atime);
+				atimeNew.changeDate(timeStep, ATime.F_INCTIME);
+				setNewDate(atimeNew);
 				return true;
 			} else if (evt.target == buttonRevStep) {		// -1 Step
-				atime.changeDate(timeStep, ATime.F_DECTIME);
-				setNewDate();
+				ATime atimeNew = new ATime(atime);
+				atimeNew.changeDate(timeStep, ATime.F_DECTIME);
+				setNewDate(atimeNew);
 				return true;
 			} else if (evt.target == checkPlanetName) {		// Planet Name
 				orbitCanvas.switchPlanetName(checkPlanetName.getState());
@@ -840,10 +749,37 @@ public class OrbitViewer extends java.applet.Applet {
 
 /**
  * Player Class
+ *
+ * Advances the date by the time step at a fixed frame rate, on a
+ * scheduled thread which is kept while the applet lives.  The frames are
+ * due by the clock from the start of playback, so that the delay of one
+ * frame does not delay the following ones; if a frame took longer than
+ * the frame period, the date advances by the frames due and the frames
+ * missed are skipped.  Playback is stopped by cancelling the schedule
+ * (a frame being computed is finished).
  */
-class OrbitPlayer implements Runnable {
+class OrbitPlayer {
+	static final long nFramePeriod = 50;	// ms
+
 	OrbitViewer	orbitViewer;
 
+	private ScheduledThreadPoolExecutor executor = null;
+	private ScheduledFuture<?> future = null;
+	private volatile Playback playback = null;
+
+	/**
+	 * Time Step of the Keyframes of the Interpolator
+	 * (by the scheduled thread only)
+	 */
+	private TimeSpan timeStepKey;
+	private int      nDirectionKey;
+
+	/**
+	 * Achieved Frame Rate (measured every second) and Skipped Frames
+	 */
+	private volatile double fFps = 0.0;
+	private volatile long   nSkipped = 0;
+
 	/**
 	 * Constructor
 	 */
@@ -852,551 +788,264 @@ class OrbitPlayer implements Runnable {
 	}
 
 	/**
-	 * Play forever
+	 * Start Playback (nDirection: ATime.F_INCTIME or ATime.F_DECTIME)
 	 */
-	public void run() {
-		while (true) {
-			try {
-				Thread.sleep(50);
-			} catch (InterruptedException e) {
-				break;
-			}
-			ATime atime = orbitViewer.getAtime();
-			atime.changeDate(orbitViewer.timeStep, orbitViewer.playDirection);
-			orbitViewer.setNewDate(atime);
+	public synchronized void play(int nDirection) {
+		if (playback != null && playback.nDirection == nDirection) {
+			return;
+		}
+		stop();
+		if (executor == null) {
+			executor = new ScheduledThreadPoolExecutor(1, r -> {
+				Thread thread = new Thread(r, "OrbitPlayer");
+				thread.setDaemon(true);
+				thread.setPriority(Thread.MIN_PRIORITY);
+				return thread;
+			});
+			executor.setRemoveOnCancelPolicy(true);
 		}
+		fFps = 0.0;
+		orbitViewer.setInterpolation(true);
+		playback = new Playback(nDirection, System.nanoTime());
+		future = executor.scheduleAtFixedRate(playback, nFramePeriod,
+											  nFramePeriod,
+											  TimeUnit.MILLISECONDS);
 	}
-}
-
-/**
- * Orbit Canvas
- */
-class OrbitCanvas extends Canvas {
 
 	/**
-	 * Orbital Element (Initialized in Constructor)
+	 * Stop Playback
 	 */
-	private Comet object;
+	public synchronized void stop() {
+		if (playback != null) {
+			orbitViewer.setInterpolation(false);
+		}
+		playback = null;
+		if (future != null) {
+			future.cancel(false);
+			future = null;
+		}
+	}
 
 	/**
-	 * Orbital Curve Class (Initialized in Constructor)
+	 * Stop Playback and the Thread
 	 */
-	private CometOrbit  objectOrbit;
-	private PlanetOrbit planetOrbit[];
-	private double epochPlanetOrbit;
+	public synchronized void shutdown() {
+		stop();
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+	}
 
-	/**
-	 * Date
-	 */
-	private ATime atime;
+	public boolean isPlaying() {
+		return playback != null;
+	}
 
 	/**
-	 * Position of the Object and Planets
+	 * Get Achieved Frame Rate (frame/sec) and Number of Skipped Frames
 	 */
-	private Xyz objectPos;
-	private Xyz planetPos[];
-  private int CenterObjectSelected;
-  private boolean OrbitDisplay[];
+	public double getFps() {
+		return fFps;
+	}
+	public long getSkippedCount() {
+		return nSkipped;
+	}
 
 	/**
-	 * Projection Parameters
+	 * One Schedule of Playback
+	 *
+	 * The direction and the start of the clock are fixed when scheduled,
+	 * and the other fields are used by the scheduled thread only, so that
+	 * a frame of a schedule never sees the clock of another.
 	 */
-	private double fRotateH = 0.0;
-	private double fRotateV = 0.0;
-	private double fZoom = 5.0;
+	private class Playback implements Runnable {
+		private final int  nDirection;
+		private final long nStartNanos;	// frame n is due at
+										// nStartNanos + n * nFramePeriod
+		private long nFrameLast = 0;
+		private long nFpsStartNanos;
+		private int  nFpsFrames = 0;
+
+		Playback(int nDirection, long nStartNanos) {
+			this.nDirection     = nDirection;
+			this.nStartNanos    = nStartNanos;
+			this.nFpsStartNanos = nStartNanos;
+		}
 
-	/**
-	 * Rotation Matrix
-	 */
-	private Matrix mtxToEcl;
-	private double epochToEcl;
-	private Matrix mtxRotate;
-	private int nX0, nY0;	// Origin
+		/**
+		 * Play One Frame (by the scheduled thread)
+		 */
+		public void run() {
+			if (playback != this) {
+				return;
+			}
+			long nNow = System.nanoTime();
+			long nFrame = (nNow - nStartNanos) / (nFramePeriod * 1000000L);
+			long nSteps = nFrame - nFrameLast;
+			if (nSteps <= 0) {
+				// run late after a long frame, and the next is not due yet
+				return;
+			}
+			nSkipped += nSteps - 1;
+			nFrameLast = nFrame;
+			// snapshot, since the step buttons may set them meanwhile
+			ATime atime = new ATime(orbitViewer.getAtime());
+			TimeSpan timeStep = orbitViewer.timeStep;
+			if (timeStep != timeStepKey || nDirection != nDirectionKey) {
+				// keyframes of the interpolator by the new step
+				timeStepKey   = timeStep;
+				nDirectionKey = nDirection;
+				ATime atimeNext = new ATime(atime);
+				atimeNext.changeDate(timeStepKey, nDirection);
+				orbitViewer.interpolator.setStep(atimeNext.getJd()
+												 - atime.getJd(), nDirection);
+			}
+			for (long i = 0; i < nSteps; i++) {
+				atime.changeDate(timeStep, nDirection);
+			}
+			orbitViewer.setNewDate(atime);
+			// achieved frame rate
+			nFpsFrames++;
+			if (nNow - nFpsStartNanos >= 1000000000L) {
+				fFps = nFpsFrames * 1.0e9 / (nNow - nFpsStartNanos);
+				nFpsStartNanos = nNow;
+				nFpsFrames = 0;
+				final String strStatus = Math.round(fFps * 10.0) / 10.0
+					+ " fps, " + nSkipped + " frames skipped";
+				EventQueue.invokeLater(() -> orbitViewer.showStatus(strStatus));
+			}
+		}
+	}
+}
+
+/**
+ * Orbit Canvas
+ */
+class OrbitCanvas extends Canvas {
 
 	/**
-	 * Size of Canvas
+	 * Renderer (Initialized in Constructor)
 	 */
-	private Dimension sizeCanvas;
+	private OrbitRenderer renderer;
 
 	/**
-	 * Colors
+	 * Frames Made for the Dates and Not Drawn Yet
 	 */
-	private Color colorObjectOrbitUpper = new Color(0x00f5ff);
-	private Color colorObjectOrbitLower = new Color(0x0000ff);
-	private Color colorObject           = new Color(0x00ffff);
-	private Color colorObjectName       = new Color(0x00cccc);
-	private Color colorPlanetOrbitUpper = new Color(0xffffff);
-	private Color colorPlanetOrbitLower = new Color(0x808080);
-	private Color colorPlanet			= new Color(0x00ff00);
-	private Color colorPlanetName		= new Color(0x00aa00);
-	private Color colorSun              = new Color(0xd04040);
-	private Color colorAxisPlus         = new Color(0xffff00);
-	private Color colorAxisMinus        = new Color(0x555500);
-	private Color colorInformation      = new Color(0xffffff);
+	private OrbitFrameBuffer frames = new OrbitFrameBuffer();
 
 	/**
-	 * Fonts
+	 * Size of Canvas
 	 */
-	private Font fontObjectName  = new Font("Helvetica", Font.BOLD, 14);
-	private Font fontPlanetName  = new Font("Helvetica", Font.PLAIN, 14);
-	private Font fontInformation = new Font("Helvetica", Font.BOLD, 14);
+	private Dimension sizeCanvas;
 
 	/**
 	 * off-screen Image
 	 */
 	Image offscreen;
 
-	/**
-	 * Object Name Drawing Flag
-	 */
-	boolean bPlanetName;
-	boolean bObjectName;
-	boolean bDistanceLabel;
-	boolean bDateLabel;
-
 	/**
 	 * Constructor
 	 */
 	public OrbitCanvas(Comet object, ATime atime) {
-		planetPos = new Xyz[9];
-                OrbitDisplay = new boolean[11];
-		this.object = object;
-		this.objectOrbit = new CometOrbit(object, 120);
-		this.planetOrbit = new PlanetOrbit[9];
-		updatePlanetOrbit(atime);
-		updateRotationMatrix(atime);
-		// Set Initial Date
-		this.atime = atime;
-		setDate(this.atime);
+		renderer = new OrbitRenderer(object, atime);
+		// orbits and axis are drawn again only when the view changes
+		renderer.setLayerCache(true);
+		// orbits as smooth as the zoom needs, with few points
+		renderer.setAdaptiveOrbit(true);
+		// planet orbits made on a background thread
+		renderer.setPlanetOrbitCache(new PlanetOrbitCache(48));
 		// no offscreen image
 		offscreen = null;
-		// no name labels
-		bPlanetName = false;
-		bObjectName = false;
-		bDistanceLabel = true;
-		bDateLabel = true;
 		repaint();
 	}
 
-	/**
-	 * Make Planet Orbit
-	 */
-	private void updatePlanetOrbit(ATime atime) {
-		for (int i = Planet.MERCURY; i <= Planet.PLUTO; i++) {
-			this.planetOrbit[i - Planet.MERCURY]
-				= new PlanetOrbit(i, atime, 48);
-		}
-		this.epochPlanetOrbit = atime.getJd();
-	}
-
-	/**
-	 * Rotation Matrix Equatorial(2000)->Ecliptic(DATE)
-	 */
-	private void updateRotationMatrix(ATime atime) {
-		Matrix mtxPrec = Matrix.PrecMatrix(Astro.JD2000, atime.getJd());
-		Matrix mtxEqt2Ecl = Matrix.RotateX(ATime.getEp(atime.getJd()));
-		this.mtxToEcl = mtxEqt2Ecl.Mul(mtxPrec);
-		this.epochToEcl = atime.getJd();
-	}
-
 	/**
 	 * Horizontal Rotation Parameter Set
 	 */
 	public void setRotateHorz(int nRotateH) {
-		this.fRotateH = (double)nRotateH;
+		renderer.setRotateHorz(nRotateH);
 	}
 
 	/**
 	 * Vertical Rotation Parameter Set
 	 */
 	public void setRotateVert(int nRotateV) {
-		this.fRotateV = (double)nRotateV;
+		renderer.setRotateVert(nRotateV);
 	}
 
 	/**
 	 * Zoom Parameter Set
 	 */
 	public void setZoom(int nZoom) {
-		this.fZoom = (double)nZoom;
+		renderer.setZoom(nZoom);
 	}
 
 	/**
-	 * Date Parameter Set
+	 * Date Parameter Set (the frame is drawn by the next update)
 	 */
 	public void setDate(ATime atime) {
-		this.atime = atime;
-		objectPos = object.GetPos(atime.getJd());
-		for (int i = 0; i < 9; i++) {
-			planetPos[i] = Planet.getPos(Planet.MERCURY+i, atime);
-		}
+		frames.put(renderer.makeFrame(atime));
+	}
+
+	/**
+	 * Interpolator Set (null: none)
+	 */
+	public void setInterpolator(OrbitInterpolator interpolator) {
+		renderer.setInterpolator(interpolator);
 	}
 
 	/**
 	 * Switch Planet Name ON/OFF
 	 */
 	public void switchPlanetName(boolean bPlanetName) {
-		this.bPlanetName = bPlanetName;
+		renderer.switchPlanetName(bPlanetName);
 	}
 
-
         /**
          * Select Orbits
          */
         public void SelectOrbits(boolean OrbitDisplay[], int OrbitCount) {
-           for (int i=0; i< OrbitCount; i++)
-           {
-                this.OrbitDisplay[i] = OrbitDisplay[i];
-           }
+                renderer.SelectOrbits(OrbitDisplay, OrbitCount);
         }
 
         /**
          * Select Center Object
          */
         public void SelectCenterObject(int CenterObjectSelected) {
-                this.CenterObjectSelected = CenterObjectSelected;
+                renderer.SelectCenterObject(CenterObjectSelected);
         }
 
 	/**
 	 * Switch Object Name ON/OFF
 	 */
 	public void switchObjectName(boolean bObjectName) {
-		this.bObjectName = bObjectName;
+		renderer.switchObjectName(bObjectName);
 	}
 
 	/**
 	 * Switch Distance Label ON/OFF
 	 */
 	public void switchDistanceLabel(boolean bDistanceLabel) {
-		this.bDistanceLabel = bDistanceLabel;
+		renderer.switchDistanceLabel(bDistanceLabel);
 	}
 
 	/**
 	 * Switch Date Label ON/OFF
 	 */
 	public void switchDateLabel(boolean bDateLabel) {
-		this.bDateLabel = bDateLabel;
-	}
-
-	/**
-	 * Get (X,Y) on Canvas from Xyz
-	 */
-	private Point getDrawPoint(Xyz xyz) {
-		// 600 means 5...fZoom...100 -> 120AU...Width...6AU
-		double fMul = this.fZoom * (double)sizeCanvas.width / 600.0
-							* (1.0 + xyz.fZ / 250.0);		// Parse
-		int nX = this.nX0 + (int)Math.round(xyz.fX * fMul);
-		int nY = this.nY0 - (int)Math.round(xyz.fY * fMul);
-		return new Point(nX, nY);
-	}
-
-	/**
-	 * Draw Planets' Orbit
-	 */
-	private void drawPlanetOrbit(Graphics g, PlanetOrbit planetOrbit,
-						 Color colorUpper, Color colorLower) {
-		Point point1, point2;
-		Xyz xyz = planetOrbit.getAt(0).Rotate(this.mtxToEcl)
-							  .Rotate(this.mtxRotate);
-		point1 = getDrawPoint(xyz);
-		for (int i = 1; i <= planetOrbit.getDivision(); i++) {
-			xyz = planetOrbit.getAt(i).Rotate(this.mtxToEcl);
-			if (xyz.fZ >= 0.0) {
-				g.setColor(colorUpper);
-			} else {
-				g.setColor(colorLower);
-			}
-			xyz = xyz.Rotate(this.mtxRotate);
-			point2 = getDrawPoint(xyz);
-			g.drawLine(point1.x, point1.y, point2.x, point2.y);
-			point1 = point2;
-		}
-	}
-
-        /**
-         * Draw Earth's Orbit
-         */
-        private void drawEarthOrbit(Graphics g, PlanetOrbit planetOrbit,
-                                                 Color colorUpper, Color colorLower) {
-                Point point1, point2;
-                Xyz xyz = planetOrbit.getAt(0).Rotate(this.mtxToEcl)
-                                                          .Rotate(this.mtxRotate);
-                point1 = getDrawPoint(xyz);
-                for (int i = 1; i <= planetOrbit.getDivision(); i++) {
-                        xyz = planetOrbit.getAt(i).Rotate(this.mtxToEcl);
-                        g.setColor(colorUpper);
-                        xyz = xyz.Rotate(this.mtxRotate);
-                        point2 = getDrawPoint(xyz);
-                        g.drawLine(point1.x, point1.y, point2.x, point2.y);
-                        point1 = point2;
-                }
-        }
-
-	/**
-	 * Draw Planets' Body
-	 */
-	private void drawPlanetBody(Graphics og, Xyz planetPos, String strName) {
-		Xyz xyz = planetPos.Rotate(this.mtxRotate);
-		Point point = getDrawPoint(xyz);
-		og.setColor(colorPlanet);
-		og.fillArc(point.x - 2, point.y - 2, 5, 5, 0, 360);
-		if (bPlanetName) {
-			og.setColor(colorPlanetName);
-			og.drawString(strName, point.x + 5, point.y);
-		}
-	}
-
-	/**
-	 * Draw Ecliptic Axis
-	 */
-	private void drawEclipticAxis(Graphics og) {
-		Xyz xyz;
-		Point point;
-
-		og.setColor(colorAxisMinus);
-		// -X
-		xyz = (new Xyz(-50.0, 0.0,  0.0)).Rotate(this.mtxRotate);
-		point = getDrawPoint(xyz);
-		og.drawLine(this.nX0, this.nY0, point.x, point.y);
-
-		// -Z
-		xyz = (new Xyz(0.0, 00.0, -50.0)).Rotate(this.mtxRotate);
-		point = getDrawPoint(xyz);
-		og.drawLine(this.nX0, this.nY0, point.x, point.y);
-
-		og.setColor(colorAxisPlus);
-		// +X
-		xyz = (new Xyz( 50.0, 0.0,  0.0)).Rotate(this.mtxRotate);
-		point = getDrawPoint(xyz);
-		og.drawLine(this.nX0, this.nY0, point.x, point.y);
-		// +Z
-		xyz = (new Xyz(0.0, 00.0,  50.0)).Rotate(this.mtxRotate);
-		point = getDrawPoint(xyz);
-		og.drawLine(this.nX0, this.nY0, point.x, point.y);
+		renderer.switchDateLabel(bDateLabel);
 	}
 
 	/**
 	 * update (paint without clearing background)
 	 */
 	public void update(Graphics g) {
-                 Point point3;
-                 Xyz xyz, xyz1;
-
-		// Calculate Drawing Parameter
-		Matrix mtxRotH = Matrix.RotateZ(this.fRotateH * Math.PI / 180.0);
-		Matrix mtxRotV = Matrix.RotateX(this.fRotateV * Math.PI / 180.0);
-		this.mtxRotate = mtxRotV.Mul(mtxRotH);
-
-		this.nX0 = this.sizeCanvas.width  / 2;
-		this.nY0 = this.sizeCanvas.height / 2;
-
-                if (Math.abs(epochToEcl - atime.getJd()) > 365.2422 * 5) {
-                        updateRotationMatrix(atime);
-                }
-
-                // If center object is comet/asteroid
-                if (CenterObjectSelected == 1 )   {
-                   xyz = this.objectOrbit.getAt(0).Rotate(this.mtxToEcl).Rotate(this.mtxRotate);
-                   xyz = this.objectPos.Rotate(this.mtxToEcl).Rotate(this.mtxRotate);
-                   point3 = getDrawPoint(xyz);
-
-                   this.nX0 = this.sizeCanvas.width - point3.x;
-                   this.nY0 = this.sizeCanvas.height - point3.y;
-
-                   if (Math.abs(epochToEcl - atime.getJd()) > 365.2422 * 5) {
-                        updateRotationMatrix(atime);
-                   }
-                }
-                // If center object is one of the planets
-                else if (CenterObjectSelected > 1 )   {
-                   xyz = planetPos[CenterObjectSelected -2].Rotate(this.mtxRotate);
-
-                   point3 = getDrawPoint(xyz);
-
-                   this.nX0 = this.sizeCanvas.width - point3.x;
-                   this.nY0 = this.sizeCanvas.height - point3.y;
-
-                   if (Math.abs(epochToEcl - atime.getJd()) > 365.2422 * 5) {
-                        updateRotationMatrix(atime);
-                   }
-                }
-
-		// Get Off-Screen Image Graphics Context
-		Graphics og = offscreen.getGraphics();
-
-		// Draw Frame
-		og.setColor(Color.black);
-		og.fillRect(0, 0, sizeCanvas.width - 1, sizeCanvas.height - 1);
-
-		// Draw Ecliptic Axis
-		drawEclipticAxis(og);
-
-		// Draw Sun
-		og.setColor(colorSun);
-		og.fillArc(this.nX0 - 2, this.nY0 - 2, 5, 5, 0, 360);
-
-		// Draw Orbit of Object
-
-                xyz = this.objectOrbit.getAt(0).Rotate(this.mtxToEcl)
-								   .Rotate(this.mtxRotate);
-	        Point point1, point2;
-		point1 = getDrawPoint(xyz);
-                if (OrbitDisplay[0] || OrbitDisplay[1]) {
-
-		   for (int i = 1; i <= this.objectOrbit.getDivision(); i++) {
-			xyz = this.objectOrbit.getAt(i).Rotate(this.mtxToEcl);
-			if (xyz.fZ >= 0.0) {
-				og.setColor(colorObjectOrbitUpper);
-			} else {
-				og.setColor(colorObjectOrbitLower);
-			}
-			xyz = xyz.Rotate(this.mtxRotate);
-			point2 = getDrawPoint(xyz);
-			og.drawLine(point1.x, point1.y, point2.x, point2.y);
-			point1 = point2;
-		   }
-                }
-
-		// Draw Object Body
-		xyz = this.objectPos.Rotate(this.mtxToEcl).Rotate(this.mtxRotate);
-		point1 = getDrawPoint(xyz);
-		og.setColor(colorObject);
-		og.fillArc(point1.x - 2, point1.y - 2, 5, 5, 0, 360);
-		og.setFont(fontObjectName);
-		if (bObjectName) {
-			og.setColor(colorObjectName);
-			og.drawString(object.getName(), point1.x + 5, point1.y);
+		OrbitFrame frame = frames.takeLatest();
+		if (frame != null) {
+			renderer.setFrame(frame);
 		}
-
-		//  Draw Orbit of Planets
-		if (Math.abs(epochPlanetOrbit - atime.getJd()) > 365.2422 * 5) {
-			updatePlanetOrbit(atime);
-		}
-		og.setFont(fontPlanetName);
-
-		if (OrbitDisplay[0] || OrbitDisplay[10]) {
-			drawPlanetOrbit(og, planetOrbit[Planet.PLUTO-Planet.MERCURY],
-							colorPlanetOrbitUpper, colorPlanetOrbitLower);
-		}
-		drawPlanetBody(og, planetPos[8], "Pluto");
-
-		if (OrbitDisplay[0] || OrbitDisplay[9]) {
-
-			drawPlanetOrbit(og, planetOrbit[Planet.NEPTUNE-Planet.MERCURY],
-							colorPlanetOrbitUpper, colorPlanetOrbitLower);
-		}
-		drawPlanetBody(og, planetPos[7], "Neptune");
-
-		if (OrbitDisplay[0] || OrbitDisplay[8]) {
-			drawPlanetOrbit(og, planetOrbit[Planet.URANUS-Planet.MERCURY],
-							colorPlanetOrbitUpper, colorPlanetOrbitLower);
-		}
-		drawPlanetBody(og, planetPos[6], "Uranus");
-
-		if (OrbitDisplay[0] || OrbitDisplay[7]) {
-			drawPlanetOrbit(og, planetOrbit[Planet.SATURN-Planet.MERCURY],
-							colorPlanetOrbitUpper, colorPlanetOrbitLower);
-		}
-		drawPlanetBody(og, planetPos[5], "Saturn");
-
-		if (OrbitDisplay[0] || OrbitDisplay[6]) {
-			drawPlanetOrbit(og, planetOrbit[Planet.JUPITER-Planet.MERCURY],
-							colorPlanetOrbitUpper, colorPlanetOrbitLower);
-		}
-		drawPlanetBody(og, planetPos[4], "Jupiter");
-
-		if (fZoom * 1.524 >= 7.5) {
-			if (OrbitDisplay[0] || OrbitDisplay[5]) {
-
-				drawPlanetOrbit(og, planetOrbit[Planet.MARS-Planet.MERCURY],
-								colorPlanetOrbitUpper, colorPlanetOrbitLower);
-			}
-			drawPlanetBody(og, planetPos[3], "Mars");
-		}
-		if (fZoom * 1.000 >= 7.5) {
-                        if (OrbitDisplay[0] || OrbitDisplay[4]) {
-
-			   drawEarthOrbit(og, planetOrbit[Planet.EARTH-Planet.MERCURY],
-						colorPlanetOrbitUpper, colorPlanetOrbitUpper);
-                        }
-			drawPlanetBody(og, planetPos[2], "Earth");
-
-		}
-		if (fZoom * 0.723 >= 7.5) {
-                        if (OrbitDisplay[0] || OrbitDisplay[3]) {
-			   drawPlanetOrbit(og, planetOrbit[Planet.VENUS-Planet.MERCURY],
-						colorPlanetOrbitUpper, colorPlanetOrbitLower);
-                        }
-			drawPlanetBody(og, planetPos[1], "Venus");
-		}
-		if (fZoom * 0.387 >= 7.5) {
-                        if (OrbitDisplay[0] || OrbitDisplay[2]) {
-			   drawPlanetOrbit(og, planetOrbit[Planet.MERCURY-Planet.MERCURY],
-						colorPlanetOrbitUpper, colorPlanetOrbitLower);
-                        }
-			drawPlanetBody(og, planetPos[0], "Mercury");
-		}
-
-		// Information
-		og.setFont(fontInformation);
-		og.setColor(colorInformation);
-		FontMetrics fm = og.getFontMetrics();
-
-		// Object Name String
-		point1.x = fm.charWidth('A');
-//		point1.y = this.sizeCanvas.height - fm.getDescent() - fm.getHeight() / 3;
-		point1.y = 2 * fm.charWidth('A');
-		og.drawString(object.getName(), point1.x, point1.y);
-
-		if (bDistanceLabel) {
-			// Earth & Sun Distance
-			double edistance, sdistance;
-			double xdiff, ydiff, zdiff;
-//			BigDecimal a,v;
-			String strDist;
-			xyz  = this.objectPos.Rotate(this.mtxToEcl).Rotate(this.mtxRotate);
-			xyz1 = planetPos[2].Rotate(this.mtxRotate);
-			sdistance = Math.sqrt((xyz.fX * xyz.fX) + (xyz.fY * xyz.fY) +
-								  (xyz.fZ * xyz.fZ)) + .0005;
-			sdistance = (int)(sdistance * 1000.0)/1000.0;
-			xdiff = xyz.fX - xyz1.fX;
-			ydiff = xyz.fY - xyz1.fY;
-			zdiff = xyz.fZ - xyz1.fZ;
-			edistance = Math.sqrt((xdiff * xdiff) + (ydiff * ydiff) +
-								  (zdiff * zdiff)) + .0005;
-			edistance = (int)(edistance * 1000.0)/1000.0;
-//			a = new BigDecimal (edistance);
-//			v = a.setScale (3, BigDecimal.ROUND_HALF_UP);
-			strDist = "Earth Distance: " + edistance + " AU";
-			point1.x = fm.charWidth('A');
-//			point1.y = this.sizeCanvas.height - fm.getDescent() - fm.getHeight() / 3;
-			point1.y = this.sizeCanvas.height - fm.getDescent() - fm.getHeight();
-			og.drawString(strDist, point1.x, point1.y);
-
-//			a = new BigDecimal (sdistance);
-//			v = a.setScale (3, BigDecimal.ROUND_HALF_UP);
-			strDist = "Sun Distance  : " + sdistance + " AU";
-			point1.x = fm.charWidth('A');
-			point1.y = this.sizeCanvas.height - fm.getDescent() - fm.getHeight() / 3;
-			og.drawString(strDist, point1.x, point1.y);
-		}
-
-		if (bDateLabel) {
-			// Date String
-			String strDate = ATime.getMonthAbbr(atime.getMonth())
-				+ " " + atime.getDay() + ", " + atime.getYear();
-			point1.x = this.sizeCanvas.width  - fm.stringWidth(strDate)
-				- fm.charWidth('A');
-			point1.y = this.sizeCanvas.height - fm.getDescent() - fm.getHeight() / 3;
-//			point1.y = 2 * fm.charWidth('A');
-			og.drawString(strDate, point1.x, point1.y);
-		}
-
-		// Border
-		og.clearRect(0,                    sizeCanvas.height - 1,
-					 sizeCanvas.width,     sizeCanvas.height     );
-		og.clearRect(sizeCanvas.width - 1, 0,
-					 sizeCanvas.width,     sizeCanvas.height     );
-
+		renderer.render(offscreen.getGraphics(),
+						sizeCanvas.width, sizeCanvas.height);
 		g.drawImage(offscreen, 0, 0, null);
 	}
 
@@ -57,16 +57,30 @@ public class ATime {
 	 * Time Parameter Origin of 1974/12/31  0h ET
 	 */
 	private double makeT() {
+		return jdToT(this.fJd);
+	}
+
+	/**
+	 * Time Parameter Origin of 2000/01/01 12h ET
+	 */
+	private double makeT2() {
+		return jdToT2(this.fJd);
+	}
+
+	/**
+	 * JD -> Time Parameter Origin of 1974/12/31  0h ET (Static Function)
+	 */
+	static public double jdToT(double fJd) {
 		// 2442412.5 = 1974.12.31 0h ET
-		double ft = (this.fJd - 2442412.5) / 365.25;
+		double ft = (fJd - 2442412.5) / 365.25;
 		double fT = ft + (0.0317 * ft + 1.43) * 0.000001;
 		return fT;
 	}
 
 	/**
-	 * Time Parameter Origin of 2000/01/01 12h ET
+	 * JD -> Time Parameter Origin of 2000/01/01 12h ET (Static Function)
 	 */
-	private double makeT2() {
+	static public double jdToT2(double fJd) {
 		double ft = (fJd - Astro.JD2000) / 36525.0;
 		return ft;
 	}
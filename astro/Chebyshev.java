@@ -0,0 +1,85 @@
+/**
+ * Chebyshev Series
+ */
+package astro;
+
+import java.nio.ByteBuffer;
+
+class Chebyshev {
+	/**
+	 * Chebyshev Nodes in -1...1 (samples for coefficients)
+	 */
+	static double node(int k, int n) {
+		return Math.cos(Math.PI * (k + 0.5) / n);
+	}
+
+	/**
+	 * Extrema in -1...1 (k = 0...n, including both ends)
+	 */
+	static double extremum(int k, int n) {
+		return Math.cos(Math.PI * k / n);
+	}
+
+	/**
+	 * Coefficients from Samples at Chebyshev Nodes
+	 * (the first coefficient is halved)
+	 */
+	static double[] coefficients(double f[]) {
+		int n = f.length;
+		double c[] = new double[n];
+		for (int j = 0; j < n; j++) {
+			double fSum = 0.0;
+			for (int k = 0; k < n; k++) {
+				fSum += f[k] * Math.cos(Math.PI * j * (k + 0.5) / n);
+			}
+			c[j] = fSum * 2.0 / n;
+		}
+		c[0] /= 2.0;
+		return c;
+	}
+
+	/**
+	 * Evaluate at fX (-1...1) by Clenshaw's Recurrence
+	 */
+	static double evaluate(double c[], double fX) {
+		double fB1 = 0.0, fB2 = 0.0;
+		double fX2 = 2.0 * fX;
+		for (int j = c.length - 1; j >= 1; j--) {
+			double fB0 = fX2 * fB1 - fB2 + c[j];
+			fB2 = fB1;
+			fB1 = fB0;
+		}
+		return fX * fB1 - fB2 + c[0];
+	}
+
+	/**
+	 * Evaluate nCount Coefficients (doubles) at nOffset (byte) in Buffer
+	 */
+	static double evaluate(ByteBuffer buf, int nOffset, int nCount,
+						   double fX) {
+		double fB1 = 0.0, fB2 = 0.0;
+		double fX2 = 2.0 * fX;
+		for (int j = nCount - 1; j >= 1; j--) {
+			double fB0 = fX2 * fB1 - fB2 + buf.getDouble(nOffset + j * 8);
+			fB2 = fB1;
+			fB1 = fB0;
+		}
+		return fX * fB1 - fB2 + buf.getDouble(nOffset);
+	}
+
+	/**
+	 * Evaluate Derivative d/dx at fX of nCount Coefficients in Buffer
+	 * (sum of j c[j] U[j-1](x), by Clenshaw's recurrence for U)
+	 */
+	static double derivative(ByteBuffer buf, int nOffset, int nCount,
+							 double fX) {
+		double fB1 = 0.0, fB2 = 0.0;
+		double fX2 = 2.0 * fX;
+		for (int j = nCount - 1; j >= 1; j--) {
+			double fB0 = fX2 * fB1 - fB2 + j * buf.getDouble(nOffset + j * 8);
+			fB2 = fB1;
+			fB1 = fB0;
+		}
+		return fB1;
+	}
+}
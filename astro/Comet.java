@@ -12,6 +12,20 @@ public class Comet {
 	private double	fEquinox;
 	private ATime	atimeEquinox;
 	private Matrix	mtxVC;		// Vector Constant
+	private Matrix	mtxVCPrec;	// Vector Constant * Precession
+
+	/**
+	 * Propagators
+	 *   CONIC      elliptical, parabolic or nearly parabolic method by e
+	 *   UNIVERSAL  universal variable for any e (CometStatusUniversal)
+	 */
+	public static final int CONIC     = 0;
+	public static final int UNIVERSAL = 1;
+
+	private int nPropagator = CONIC;
+	private KeplerSolver solver = KeplerSolver.getDefault();
+	private boolean bWarmStart = false;
+	private volatile double warmState[] = null;	// {JD, E} of previous call
 
 	private static final double TOLERANCE = 1.0e-12;
 	private static final int    MAXAPPROX = 80;
@@ -38,55 +52,53 @@ public class Comet {
 		this.atimeEquinox = new ATime(nEqnxYear, nEqnxMonth, fEqnxDay, 0.0);
 		// Vector Constant
 		mtxVC = Matrix.VectorConstant(fPeri, fNode, fIncl, atimeEquinox);
+		// Vector Constant with Precession Equinox -> 2000.0
+		Matrix mtxPrec
+			= PrecessionCache.getEquinoxPrecession(atimeEquinox.getJd());
+		mtxVCPrec = mtxPrec.Mul(mtxVC);
 	}
 
 	/**
 	 * Get Position on Orbital Plane for Elliptical Orbit
+	 * (returns eccentric anomaly, solved from fEStart if not NaN)
 	 */
-	private Xyz CometStatusEllip(double fJd) {
-		if (this.fQ == 0.0) {
-			throw new ArithmeticException();
-		}
-		double fAxis = this.fQ / (1.0 - this.fE);
-		double fM = Astro.GAUSS * (fJd - this.fT) / (Math.sqrt(fAxis) * fAxis);
-		double fE1 = fM + this.fE * Math.sin(fM);
-		int nCount = MAXAPPROX;
-		if (this.fE < 0.6) {
-			double fE2;
-			do {
-				fE2 = fE1;
-				fE1 = fM + this.fE * Math.sin(fE2);
-			} while (Math.abs(fE1 - fE2) > TOLERANCE && --nCount > 0);
-		} else {
-			double fDv;
-			do {
-				double fDv1 = (fM + this.fE * Math.sin(fE1) - fE1);
-				double fDv2 = (1.0 - this.fE * Math.cos(fE1));
-				if (Math.abs(fDv1) < TOLERANCE || Math.abs(fDv2) < TOLERANCE) {
-					break;
-				}
-				fDv = fDv1 / fDv2;
-				fE1 += fDv;
-			} while (Math.abs(fDv) > TOLERANCE && --nCount > 0);
-		}
-		if (nCount == 0) {
+	static double CometStatusEllip(double fT, double fE, double fQ,
+								   double fJd, KeplerSolver solver,
+								   double fEStart, double fPos[]) {
+		if (fQ == 0.0) {
 			throw new ArithmeticException();
 		}
-		double fX = fAxis * (Math.cos(fE1) - this.fE);
-		double fY = fAxis * Math.sqrt(1.0 - this.fE * this.fE) * Math.sin(fE1);
+		double fAxis = fQ / (1.0 - fE);
+		double fM = Astro.GAUSS * (fJd - fT) / (Math.sqrt(fAxis) * fAxis);
+		double fE1 = solver.solve(fM, fE, fEStart);
+		double fX = fAxis * (Math.cos(fE1) - fE);
+		double fY = fAxis * Math.sqrt(1.0 - fE * fE) * Math.sin(fE1);
 
-		return new Xyz(fX, fY, 0.0);
+		fPos[0] = fX;
+		fPos[1] = fY;
+		return fE1;
+	}
+
+	/**
+	 * Start of Eccentric Anomaly at fJd from fEPrev at fJdPrev
+	 */
+	static double getWarmStart(double fE, double fQ, double fJd,
+							   double fJdPrev, double fEPrev) {
+		double fAxis = fQ / (1.0 - fE);
+		double fN = Astro.GAUSS / (Math.sqrt(fAxis) * fAxis);
+		return KeplerSolver.getWarmStart(fEPrev, fE, fN * (fJd - fJdPrev));
 	}
 
 	/**
 	 * Get Position on Orbital Plane for Parabolic Orbit
 	 */
-	private Xyz CometStatusPara(double fJd) {
-		if (this.fQ == 0.0) {
+	static void CometStatusPara(double fT, double fE, double fQ,
+								double fJd, double fPos[]) {
+		if (fQ == 0.0) {
 			throw new ArithmeticException();
 		}
-		double fN = Astro.GAUSS * (fJd - this.fT)
-			/ (Math.sqrt(2.0) * this.fQ * Math.sqrt(this.fQ));
+		double fN = Astro.GAUSS * (fJd - fT)
+			/ (Math.sqrt(2.0) * fQ * Math.sqrt(fQ));
 		double fTanV2 = fN;
 		double fOldTanV2, fTan2V2;
 		int nCount = MAXAPPROX;
@@ -99,29 +111,31 @@ public class Comet {
 			throw new ArithmeticException();
 		}
 		fTan2V2 = fTanV2 * fTanV2;
-		double fX = this.fQ * (1.0 - fTan2V2);
-		double fY = 2.0 * this.fQ * fTanV2;
+		double fX = fQ * (1.0 - fTan2V2);
+		double fY = 2.0 * fQ * fTanV2;
 
-		return new Xyz(fX, fY, 0.0);
+		fPos[0] = fX;
+		fPos[1] = fY;
 	}
 
 	/**
 	 * Get Position on Orbital Plane for Nearly Parabolic Orbit
 	 */
-	private Xyz CometStatusNearPara(double fJd) {
-		if (this.fQ == 0.0) {
+	static void CometStatusNearPara(double fT, double fE, double fQ,
+									double fJd, double fPos[]) {
+		if (fQ == 0.0) {
 			throw new ArithmeticException();
 		}
-		double fA = Math.sqrt((1.0 + 9.0 * this.fE) / 10.0);
-		double fB = 5.0 * (1 - this.fE) / (1.0 + 9.0 * this.fE);
+		double fA = Math.sqrt((1.0 + 9.0 * fE) / 10.0);
+		double fB = 5.0 * (1 - fE) / (1.0 + 9.0 * fE);
 		double fA1, fB1, fX1, fA0, fB0, fX0, fN;
 		fA1 = fB1 = fX1 = 1.0;
 		int nCount1 = MAXAPPROX;
 		do {
 			fA0 = fA1;
 			fB0 = fB1;
-			fN = fB0 * fA * Astro.GAUSS * (fJd - this.fT)
-				/ (Math.sqrt(2.0) * this.fQ * Math.sqrt(this.fQ));
+			fN = fB0 * fA * Astro.GAUSS * (fJd - fT)
+				/ (Math.sqrt(2.0) * fQ * Math.sqrt(fQ));
 			int nCount2 = MAXAPPROX;
 			do {
 				fX0 = fX1;
@@ -139,30 +153,228 @@ public class Comet {
 		}
 		double fC1 = ((0.12495238 * fA1 + 0.21714286) * fA1 + 0.4) * fA1 + 1.0;
 		double fD1 = ((0.00571429 * fA1 + 0.2       ) * fA1 - 1.0) * fA1 + 1.0;
-		double fTanV2 = Math.sqrt(5.0 * (1.0 + this.fE)
-				  / (1.0 + 9.0 * this.fE)) * fC1 * fX1;
-		double fX = this.fQ * fD1 * (1.0 - fTanV2 * fTanV2);
-		double fY = 2.0 * this.fQ * fD1 * fTanV2;
-		return new Xyz(fX, fY, 0.0);
+		double fTanV2 = Math.sqrt(5.0 * (1.0 + fE)
+				  / (1.0 + 9.0 * fE)) * fC1 * fX1;
+		double fX = fQ * fD1 * (1.0 - fTanV2 * fTanV2);
+		double fY = 2.0 * fQ * fD1 * fTanV2;
+		fPos[0] = fX;
+		fPos[1] = fY;
 	}
 
 	/**
-	 * Get Position in Heliocentric Equatorial Coordinates 2000.0
+	 * Get Position on Orbital Plane by Universal Variable
+	 * (any eccentricity, never throws)
+	 *
+	 * Kepler's equation in the universal variable x from perihelion
+	 *   k (t - T) = q x + e x^3 S(z),  r = q + e x^2 C(z),  z = x^2 / a
+	 * is solved by Laguerre's method, which converges from any start.
+	 * S and C are the Stumpff functions.
 	 */
-	public Xyz GetPos(double fJd) {
-		Xyz xyz;
+	static void CometStatusUniversal(double fT, double fE, double fQ,
+									 double fJd, double fPos[]) {
+		double fAlpha = (1.0 - fE) / fQ;	// 1/a
+		double fKDt = Astro.GAUSS * (fJd - fT);
+		if (fAlpha > 0.0) {
+			// to the nearest revolution
+			double fKPeriod = Math.PI * 2.0 / (fAlpha * Math.sqrt(fAlpha));
+			fKDt -= Math.floor(fKDt / fKPeriod + 0.5) * fKPeriod;
+		}
+		// start
+		double fX;
+		if (fE < 0.98) {
+			// from eccentric anomaly E = sqrt(1/a) x
+			double fSqrtAlpha = Math.sqrt(fAlpha);
+			double fM = fKDt * fAlpha * fSqrtAlpha;
+			double fE0 = (fE < 0.8) ? fM + fE * Math.sin(fM)
+				: fM + Math.copySign(0.85 * fE, fM);
+			fX = fE0 / fSqrtAlpha;
+		} else if (fE > 1.2) {
+			// from hyperbolic anomaly H = sqrt(-1/a) x
+			double fSqrtAlpha = Math.sqrt(-fAlpha);
+			double fM = fKDt * -fAlpha * fSqrtAlpha;
+			double fH0 = Math.log(2.0 * Math.abs(fM) / fE + 1.8);
+			fX = Math.copySign(fH0, fM) / fSqrtAlpha;
+		} else {
+			// the cubic term dominates far from perihelion
+			fX = fKDt / fQ;
+			double fX3 = Math.cbrt(6.0 * fKDt / fE);
+			if (Math.abs(fX3) < Math.abs(fX)) {
+				fX = fX3;
+			}
+		}
+		double fSC[] = new double[2];
+		for (int nCount = 0; nCount < MAXAPPROX; nCount++) {
+			double fZ = fAlpha * fX * fX;
+			stumpff(fZ, fSC);
+			double f0 = (fQ + fE * fX * fX * fSC[0]) * fX - fKDt;
+			double f1 = fQ + fE * fX * fX * fSC[1];
+			double f2 = fE * fX * (1.0 - fZ * fSC[0]);
+			// Laguerre's method (n = 5)
+			double fRoot = Math.sqrt(Math.abs(16.0 * f1 * f1
+											  - 20.0 * f0 * f2));
+			double fDx = -5.0 * f0 / (f1 + Math.copySign(fRoot, f1));
+			if (!(Math.abs(fDx) < Double.POSITIVE_INFINITY)) {
+				break;
+			}
+			fX += fDx;
+			// third order: the error of x is about fDx^3 after this step
+			if (Math.abs(fDx) <= 1.0e-6 * Math.max(1.0, Math.abs(fX))) {
+				break;
+			}
+		}
+		double fZ = fAlpha * fX * fX;
+		stumpff(fZ, fSC);
+		fPos[0] = fQ - fX * fX * fSC[1];
+		fPos[1] = fX * (1.0 - fZ * fSC[0]) * Math.sqrt(fQ * (1.0 + fE));
+	}
+
+	/**
+	 * Stumpff Functions S(z) -> fSC[0], C(z) -> fSC[1]
+	 */
+	static void stumpff(double fZ, double fSC[]) {
+		if (Math.abs(fZ) < 1.0) {
+			// series  S = sum (-z)^k / (2k+3)!,  C = sum (-z)^k / (2k+2)!
+			double fS = 0.0;
+			double fC = 0.0;
+			for (int k = 8; k >= 0; k--) {
+				fS = fInvFact[2 * k + 3] - fZ * fS;
+				fC = fInvFact[2 * k + 2] - fZ * fC;
+			}
+			fSC[0] = fS;
+			fSC[1] = fC;
+		} else if (fZ > 0.0) {
+			double fSqrt = Math.sqrt(fZ);
+			fSC[0] = (fSqrt - Math.sin(fSqrt)) / (fZ * fSqrt);
+			fSC[1] = (1.0 - Math.cos(fSqrt)) / fZ;
+		} else {
+			double fSqrt = Math.sqrt(-fZ);
+			fSC[0] = (Math.sinh(fSqrt) - fSqrt) / (-fZ * fSqrt);
+			fSC[1] = (Math.cosh(fSqrt) - 1.0) / -fZ;
+		}
+	}
+
+	private static final double fInvFact[] = new double[20];	// 1/n!
+	static {
+		fInvFact[0] = 1.0;
+		for (int n = 1; n < fInvFact.length; n++) {
+			fInvFact[n] = fInvFact[n - 1] / n;
+		}
+	}
+
+	/**
+	 * Get Position on Orbital Plane
+	 */
+	static double CometStatus(double fT, double fE, double fQ,
+							  double fJd, KeplerSolver solver,
+							  double fEStart, double fPos[]) {
 		// CometStatus' may be throw ArithmeticException
-		if (this.fE < 0.98) {
-			xyz = CometStatusEllip(fJd);
-		} else if (Math.abs(this.fE - 1.0) < TOLERANCE) {
-			xyz = CometStatusPara(fJd);
+		if (fE < 0.98) {
+			return CometStatusEllip(fT, fE, fQ, fJd, solver, fEStart, fPos);
+		} else if (Math.abs(fE - 1.0) < TOLERANCE) {
+			CometStatusPara(fT, fE, fQ, fJd, fPos);
 		} else {
-			xyz = CometStatusNearPara(fJd);
+			CometStatusNearPara(fT, fE, fQ, fJd, fPos);
 		}
-		xyz = xyz.Rotate(mtxVC);
-		Matrix mtxPrec = Matrix.PrecMatrix(this.atimeEquinox.getJd(),
-										   Astro.JD2000);
-		return xyz.Rotate(mtxPrec);
+		return Double.NaN;
+	}
+
+	private void CometStatus(double fJd, double fPos[]) {
+		if (nPropagator == UNIVERSAL) {
+			CometStatusUniversal(this.fT, this.fE, this.fQ, fJd, fPos);
+			return;
+		}
+		double fEStart = Double.NaN;
+		double warm[] = this.warmState;
+		if (bWarmStart && warm != null && fE < 0.98) {
+			// from the previous date (ex. playback)
+			fEStart = getWarmStart(fE, fQ, fJd, warm[0], warm[1]);
+		}
+		double fE1 = CometStatus(this.fT, this.fE, this.fQ, fJd,
+								 this.solver, fEStart, fPos);
+		if (bWarmStart && !Double.isNaN(fE1)) {
+			this.warmState = new double[] {fJd, fE1};
+		}
+	}
+
+	/**
+	 * Propagator Set (CONIC or UNIVERSAL)
+	 */
+	public void setPropagator(int nPropagator) {
+		if (nPropagator != CONIC && nPropagator != UNIVERSAL) {
+			throw new IllegalArgumentException("Unknown propagator "
+											   + nPropagator);
+		}
+		this.nPropagator = nPropagator;
+	}
+	public int getPropagator() {
+		return this.nPropagator;
+	}
+
+	/**
+	 * Kepler's Equation Solver Set (for elliptical orbit)
+	 */
+	public void setKeplerSolver(KeplerSolver solver) {
+		this.solver = solver;
+	}
+	public KeplerSolver getKeplerSolver() {
+		return this.solver;
+	}
+
+	/**
+	 * Warm Start ON/OFF
+	 * (Kepler's equation is solved from the eccentric anomaly of the
+	 *  previous call, which is near when the date changes by steps)
+	 */
+	public void setWarmStart(boolean bWarmStart) {
+		this.bWarmStart = bWarmStart;
+		this.warmState = null;
+	}
+
+	/**
+	 * Get Position in Heliocentric Equatorial Coordinates 2000.0
+	 */
+	public Xyz GetPos(double fJd) {
+		double fPos[] = new double[2];
+		CometStatus(fJd, fPos);
+		Xyz xyz = new Xyz(fPos[0], fPos[1], 0.0);
+		return xyz.Rotate(mtxVCPrec);
+	}
+
+	/**
+	 * Get Positions in Heliocentric Equatorial Coordinates 2000.0
+	 * for each JD in fJd[] (results are stored in fX[], fY[], fZ[])
+	 */
+	public void GetPos(double fJd[], double fX[], double fY[], double fZ[]) {
+		double fPos[] = new double[2];
+		Matrix mtx = this.mtxVCPrec;
+		for (int i = 0; i < fJd.length; i++) {
+			CometStatus(fJd[i], fPos);
+			fX[i] = mtx.fA11 * fPos[0] + mtx.fA12 * fPos[1];
+			fY[i] = mtx.fA21 * fPos[0] + mtx.fA22 * fPos[1];
+			fZ[i] = mtx.fA31 * fPos[0] + mtx.fA32 * fPos[1];
+		}
+	}
+
+	/**
+	 * Get Position (AU) and Velocity (AU/day) in Heliocentric Equatorial
+	 * Coordinates 2000.0 in fPos[0..2] and fVel[0..2]
+	 * (the velocity is of the conic through the position, any propagator)
+	 */
+	public void getState(double fJd, double fPos[], double fVel[]) {
+		double fPos2[] = new double[2];
+		CometStatus(fJd, fPos2);
+		// (mu / h) * (-sin(v), e + cos(v)),  h = k sqrt(q (1 + e))
+		double fR = Math.sqrt(fPos2[0] * fPos2[0] + fPos2[1] * fPos2[1]);
+		double fMuH = Astro.GAUSS / Math.sqrt(fQ * (1.0 + fE));
+		double fVx = -fMuH * fPos2[1] / fR;
+		double fVy =  fMuH * (fE + fPos2[0] / fR);
+		Matrix mtx = this.mtxVCPrec;
+		fPos[0] = mtx.fA11 * fPos2[0] + mtx.fA12 * fPos2[1];
+		fPos[1] = mtx.fA21 * fPos2[0] + mtx.fA22 * fPos2[1];
+		fPos[2] = mtx.fA31 * fPos2[0] + mtx.fA32 * fPos2[1];
+		fVel[0] = mtx.fA11 * fVx + mtx.fA12 * fVy;
+		fVel[1] = mtx.fA21 * fVx + mtx.fA22 * fVy;
+		fVel[2] = mtx.fA31 * fVx + mtx.fA32 * fVy;
 	}
 
 	/**
@@ -198,4 +410,13 @@ public class Comet {
 	public Matrix getVectorConstant() {
 		return this.mtxVC;
 	}
+	/**
+	 * Get Vector Constant x Precession Matrix (a copy)
+	 */
+	public Matrix getVectorConstantPrec() {
+		Matrix mtx = this.mtxVCPrec;
+		return new Matrix(mtx.fA11, mtx.fA12, mtx.fA13,
+						  mtx.fA21, mtx.fA22, mtx.fA23,
+						  mtx.fA31, mtx.fA32, mtx.fA33);
+	}
 }
@@ -0,0 +1,133 @@
+/**
+ * Array of Comets (or Asteroids)
+ *
+ * Orbital elements of many objects in flat arrays, to compute the
+ * positions of all of them at one time.  For each object, T, e, q and
+ * the first two columns of the vector constant with precession
+ * (Comet.getVectorConstantPrec) are kept.  GetPos does not change the
+ * array, so that it may be shared by threads; the Kepler's equation
+ * solver and the states for warm start are in a Context of each caller.
+ */
+package astro;
+
+public class CometArray {
+
+	private int nCount;
+	private double fT[], fE[], fQ[];
+	private double fA11[], fA21[], fA31[];
+	private double fA12[], fA22[], fA32[];
+
+	/**
+	 * Context of a Caller of GetPos
+	 *
+	 * Kepler's equation solver, and JD and E of the previous call for
+	 * warm start (see Comet.setWarmStart) of each object.  A context is
+	 * used by one caller at a time (threads of the caller may compute
+	 * objects of different indices).
+	 */
+	public static class Context {
+		private KeplerSolver solver;
+		private double fJdPrev[];	// null: no warm start
+		private double fEPrev[];	// NaN: none
+
+		public Context(CometArray array, KeplerSolver solver,
+					   boolean bWarmStart) {
+			this.solver = solver;
+			if (bWarmStart) {
+				fJdPrev = new double[array.getCount()];
+				fEPrev  = new double[array.getCount()];
+				java.util.Arrays.fill(fEPrev, Double.NaN);
+			}
+		}
+
+		public KeplerSolver getKeplerSolver() {
+			return solver;
+		}
+	}
+
+	/**
+	 * Constructor
+	 */
+	public CometArray(int nCount) {
+		this.nCount = nCount;
+		fT   = new double[nCount];
+		fE   = new double[nCount];
+		fQ   = new double[nCount];
+		fA11 = new double[nCount];
+		fA21 = new double[nCount];
+		fA31 = new double[nCount];
+		fA12 = new double[nCount];
+		fA22 = new double[nCount];
+		fA32 = new double[nCount];
+	}
+
+	/**
+	 * Set Object
+	 */
+	public void set(int i, Comet comet) {
+		Matrix mtx = comet.getVectorConstantPrec();
+		fT[i]   = comet.getT();
+		fE[i]   = comet.getE();
+		fQ[i]   = comet.getQ();
+		fA11[i] = mtx.fA11;
+		fA21[i] = mtx.fA21;
+		fA31[i] = mtx.fA31;
+		fA12[i] = mtx.fA12;
+		fA22[i] = mtx.fA22;
+		fA32[i] = mtx.fA32;
+	}
+
+	/**
+	 * Get Number of Objects
+	 */
+	public int getCount() {
+		return nCount;
+	}
+
+	/**
+	 * Get Positions in Heliocentric Equatorial Coordinates 2000.0
+	 * of objects from nFrom to nTo - 1 (results are stored in fX[],
+	 * fY[], fZ[] at the same index; NaN if the position is not solved)
+	 * by the default solver without warm start
+	 */
+	public void GetPos(double fJd, int nFrom, int nTo,
+					   double fX[], double fY[], double fZ[]) {
+		GetPos(fJd, nFrom, nTo, fX, fY, fZ,
+			   new Context(this, KeplerSolver.getDefault(), false));
+	}
+
+	/**
+	 * Get Positions by the Solver of the Context, with Warm Start if
+	 * the Context has
+	 */
+	public void GetPos(double fJd, int nFrom, int nTo,
+					   double fX[], double fY[], double fZ[],
+					   Context context) {
+		double fPos[] = new double[2];
+		KeplerSolver solver = context.solver;
+		double fJdPrev[] = context.fJdPrev;
+		double fEPrev[]  = context.fEPrev;
+		boolean bWarmStart = (fJdPrev != null);
+		for (int i = nFrom; i < nTo; i++) {
+			double fEStart = Double.NaN;
+			if (bWarmStart && !Double.isNaN(fEPrev[i])) {
+				fEStart = Comet.getWarmStart(fE[i], fQ[i], fJd, fJdPrev[i],
+											 fEPrev[i]);
+			}
+			try {
+				double fE1 = Comet.CometStatus(fT[i], fE[i], fQ[i], fJd,
+											   solver, fEStart, fPos);
+				if (bWarmStart) {
+					fJdPrev[i] = fJd;
+					fEPrev[i]  = fE1;
+				}
+			} catch (ArithmeticException e) {
+				fX[i] = fY[i] = fZ[i] = Double.NaN;
+				continue;
+			}
+			fX[i] = fA11[i] * fPos[0] + fA12[i] * fPos[1];
+			fY[i] = fA21[i] * fPos[0] + fA22[i] * fPos[1];
+			fZ[i] = fA31[i] * fPos[0] + fA32[i] * fPos[1];
+		}
+	}
+}
@@ -5,14 +5,36 @@ package astro;
 import astro.ATime;
 import astro.Xyz;
 
-public class CometOrbit {
+public class CometOrbit implements OrbitCurve {
 
-	private Xyz orbit[];			// actual orbit data
+	private double orbitX[];		// actual orbit data
+	private double orbitY[];
+	private double orbitZ[];
 	private int nDivision;			// number of division
 
 	static private final double fMaxOrbit = 90.0;
 	static private final double fTolerance = 1.0e-16;
 
+	/**
+	 * Orbit as a Curve (see getPoint)
+	 */
+	static private final int ELLIPTIC   = 0;
+	static private final int HYPERBOLIC = 1;
+	static private final int PARABOLIC  = 2;
+	private int    nType;
+	private double fE, fQ, fAxis;
+	private double fUMin, fUMax;
+	private Matrix vecPrec;
+
+	/**
+	 * Set Orbit Point on Orbital Plane
+	 */
+	private void setAt(int nIndex, double fX, double fY) {
+		orbitX[nIndex] = fX;
+		orbitY[nIndex] = fY;
+		orbitZ[nIndex] = 0.0;
+	}
+
 	/**
 	 *  Elliptical Orbit
 	 */
@@ -29,8 +51,8 @@ public class CometOrbit {
 				double fE = fdE * i * i;
 				double fRCosV = fAxis * (Math.cos(fE) - comet.getE());
 				double fRSinV = fAxis * ft * Math.sin(fE);
-				orbit[nIdx1++] = new Xyz(fRCosV,  fRSinV, 0.0);
-				orbit[nIdx2--] = new Xyz(fRCosV, -fRSinV, 0.0);
+				setAt(nIdx1++, fRCosV,  fRSinV);
+				setAt(nIdx2--, fRCosV, -fRSinV);
 			}
 		} else {
 			int nIdx1, nIdx2, nIdx3, nIdx4;
@@ -42,10 +64,10 @@ public class CometOrbit {
 				 i++, fE += (2.0 * Math.PI / this.nDivision)) {
 				double fRCosV = fAxis * (Math.cos(fE) - comet.getE());
 				double fRSinV = fAxis * ft * Math.sin(fE);
-				orbit[nIdx1++] = new Xyz(fRCosV,         fRSinV, 0.0);
-				orbit[nIdx2--] = new Xyz(fae2 - fRCosV,  fRSinV, 0.0);
-				orbit[nIdx3++] = new Xyz(fae2 - fRCosV, -fRSinV, 0.0);
-				orbit[nIdx4--] = new Xyz(fRCosV,        -fRSinV, 0.0);
+				setAt(nIdx1++, fRCosV,         fRSinV);
+				setAt(nIdx2--, fae2 - fRCosV,  fRSinV);
+				setAt(nIdx3++, fae2 - fRCosV, -fRSinV);
+				setAt(nIdx4--, fRCosV,        -fRSinV);
 			}
 		}
 	}
@@ -64,8 +86,8 @@ public class CometOrbit {
 		for (int i = 0; i <= (this.nDivision / 2); i++, fF += fdF) {
 			double fRCosV = fAxis * (comet.getE() - UdMath.cosh(fF));
 			double fRSinV = fAxis * ft * UdMath.sinh(fF);
-			orbit[nIdx1++] = new Xyz(fRCosV,  fRSinV, 0.0);
-			orbit[nIdx2--] = new Xyz(fRCosV, -fRSinV, 0.0);
+			setAt(nIdx1++, fRCosV,  fRSinV);
+			setAt(nIdx2--, fRCosV, -fRSinV);
 		}
 	}
 
@@ -82,8 +104,8 @@ public class CometOrbit {
 			double fTanV2 = Math.sin(fV / 2.0) / Math.cos(fV / 2.0);
 			double fRCosV = comet.getQ() * (1.0 - fTanV2 * fTanV2);
 			double fRSinV = 2.0 * comet.getQ() * fTanV2;
-			orbit[nIdx1++] = new Xyz(fRCosV,  fRSinV, 0.0);
-			orbit[nIdx2--] = new Xyz(fRCosV, -fRSinV, 0.0);
+			setAt(nIdx1++, fRCosV,  fRSinV);
+			setAt(nIdx2--, fRCosV, -fRSinV);
 		}
 	}
 	
@@ -92,7 +114,9 @@ public class CometOrbit {
 	 */
 	public CometOrbit(Comet comet, int nDivision) {
 		this.nDivision = nDivision;
-		orbit = new Xyz[nDivision+1];
+		orbitX = new double[nDivision+1];
+		orbitY = new double[nDivision+1];
+		orbitZ = new double[nDivision+1];
 		if (comet.getE() < 1.0 - fTolerance) {
 			GetOrbitEllip(comet);
 		} else if (comet.getE() > 1.0 + fTolerance) {
@@ -101,11 +125,76 @@ public class CometOrbit {
 			GetOrbitPara(comet);
 		}
 		
-		Matrix vec = comet.getVectorConstant();
-		Matrix prec = Matrix.PrecMatrix(comet.getEquinoxJd(), Astro.JD2000);
-		for (int i = 0; i <= nDivision; i++) {
-			orbit[i] = orbit[i].Rotate(vec).Rotate(prec);
+		Matrix vecPrec = comet.getVectorConstantPrec();
+		rotateInto(vecPrec, orbitX, orbitY, orbitZ);
+		setCurve(comet, vecPrec);
+	}
+
+	/**
+	 * Parameters of the Curve
+	 * (eccentric anomaly, hyperbolic anomaly or true anomaly, within
+	 *  fMaxOrbit from the Sun as the orbit points)
+	 */
+	private void setCurve(Comet comet, Matrix vecPrec) {
+		this.fE = comet.getE();
+		this.fQ = comet.getQ();
+		this.vecPrec = vecPrec;
+		if (fE < 1.0 - fTolerance) {
+			nType = ELLIPTIC;
+			fAxis = fQ / (1.0 - fE);
+			if (fAxis * (1.0 + fE) > fMaxOrbit) {
+				fUMax = Math.acos((1.0 - fMaxOrbit / fAxis) / fE);
+				fUMin = -fUMax;
+			} else {
+				fUMin = 0.0;
+				fUMax = 2.0 * Math.PI;
+			}
+		} else if (fE > 1.0 + fTolerance) {
+			nType = HYPERBOLIC;
+			fAxis = fQ / (fE - 1.0);
+			fUMax = UdMath.arccosh((fMaxOrbit + fAxis) / (fAxis * fE));
+			fUMin = -fUMax;
+		} else {
+			nType = PARABOLIC;
+			fUMax = Math.atan(Math.sqrt(fMaxOrbit / fQ - 1.0)) * 2.0;
+			fUMin = -fUMax;
+		}
+	}
+
+	/**
+	 * Range of the Parameter of getPoint
+	 */
+	public double getParamMin() {
+		return fUMin;
+	}
+	public double getParamMax() {
+		return fUMax;
+	}
+
+	/**
+	 * Get Point at the Parameter fU (result is stored in dst)
+	 */
+	public Xyz getPoint(double fU, Xyz dst) {
+		double fRCosV, fRSinV;
+		switch (nType) {
+		case ELLIPTIC:
+			fRCosV = fAxis * (Math.cos(fU) - fE);
+			fRSinV = fAxis * Math.sqrt(1.0 - fE * fE) * Math.sin(fU);
+			break;
+		case HYPERBOLIC:
+			fRCosV = fAxis * (fE - UdMath.cosh(fU));
+			fRSinV = fAxis * Math.sqrt(fE * fE - 1.0) * UdMath.sinh(fU);
+			break;
+		default:
+			double fTanV2 = Math.tan(fU / 2.0);
+			fRCosV = fQ * (1.0 - fTanV2 * fTanV2);
+			fRSinV = 2.0 * fQ * fTanV2;
+			break;
 		}
+		Matrix mtx = this.vecPrec;
+		return dst.set(mtx.fA11 * fRCosV + mtx.fA12 * fRSinV,
+					   mtx.fA21 * fRCosV + mtx.fA22 * fRSinV,
+					   mtx.fA31 * fRCosV + mtx.fA32 * fRSinV);
 	}
 
 	/**
@@ -119,6 +208,41 @@ public class CometOrbit {
 	 * Get Orbit Point
 	 */
 	public Xyz getAt(int nIndex) {
-		return orbit[nIndex];
+		return new Xyz(orbitX[nIndex], orbitY[nIndex], orbitZ[nIndex]);
+	}
+
+	/**
+	 * Get Orbit Point (result is stored in dst)
+	 */
+	public Xyz getAt(int nIndex, Xyz dst) {
+		return dst.set(orbitX[nIndex], orbitY[nIndex], orbitZ[nIndex]);
+	}
+
+	/**
+	 * Get Orbit Point Arrays (shared, must not be modified)
+	 */
+	public double[] getArrayX() {
+		return orbitX;
+	}
+	public double[] getArrayY() {
+		return orbitY;
+	}
+	public double[] getArrayZ() {
+		return orbitZ;
+	}
+
+	/**
+	 * Rotate All Orbit Points with Matrix
+	 * (results are stored in fX[], fY[], fZ[])
+	 */
+	public void rotateInto(Matrix mtx, double fX[], double fY[], double fZ[]) {
+		for (int i = 0; i <= nDivision; i++) {
+			double fX0 = orbitX[i];
+			double fY0 = orbitY[i];
+			double fZ0 = orbitZ[i];
+			fX[i] = mtx.fA11 * fX0 + mtx.fA12 * fY0 + mtx.fA13 * fZ0;
+			fY[i] = mtx.fA21 * fX0 + mtx.fA22 * fY0 + mtx.fA23 * fZ0;
+			fZ[i] = mtx.fA31 * fX0 + mtx.fA32 * fY0 + mtx.fA33 * fZ0;
+		}
 	}
 }
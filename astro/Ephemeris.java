@@ -0,0 +1,242 @@
+/**
+ * Ephemeris File (Reader)
+ *
+ * Positions of planets and comets as Chebyshev segments, made by
+ * EphemerisWriter.  The file is mapped into memory (FileChannel.map)
+ * and positions are evaluated from the mapped buffer, so that opening
+ * the file is cheap and processes on one host share the page cache.
+ *
+ * File Format (big endian)
+ *
+ *   0  int     magic "OVEP"
+ *   4  int     version (2)
+ *   8  int     number of bodies
+ *  12  int     number of terms per coordinate
+ *  16  int     number of segments
+ *  20  int     (reserved, 0)
+ *  24  double  JD of start
+ *  32  double  length of a segment (day)
+ *  40  body table, 64 bytes for each body
+ *        int     type (PLANET or COMET)
+ *        int     planet number (Planet.MERCURY...PLUTO, 0 for comet)
+ *        double  maximum error found by the writer (AU)
+ *        byte[48] name (UTF-8, padded with 0)
+ *  ..  coefficients (double), for each body, for each segment,
+ *      terms of X, terms of Y, terms of Z
+ *
+ * A segment which the writer could not fit within its maximum error
+ * (ex. across the 1950/2060 boundary of PlanetExp) is filled with NaN,
+ * and contains(nBody, fJd) is false in it.  The maximum error of a body
+ * is that of its fitted segments.
+ *
+ * Planets are in ecliptic coordinates of the date (as Planet.getPos),
+ * comets in equatorial coordinates of J2000.0 (as Comet.GetPos).
+ */
+package astro;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+public class Ephemeris {
+
+	public static final int PLANET = 0;
+	public static final int COMET  = 1;
+
+	static final int MAGIC       = 0x4f564550;	// "OVEP"
+	static final int VERSION     = 2;
+	static final int HEADER_SIZE = 40;
+	static final int BODY_SIZE   = 64;
+	static final int NAME_SIZE   = 48;
+
+	private ByteBuffer buf;
+	private int    nBodies;
+	private int    nTerms;
+	private int    nSegments;
+	private double fJdStart;
+	private double fSegment;
+	private int    nDataOffset;
+	private int    nPlanetBody[];	// body index of each planet (-1: none)
+
+	/**
+	 * Open Ephemeris File
+	 */
+	public static Ephemeris open(File file) throws IOException {
+		FileChannel channel = FileChannel.open(file.toPath(),
+											   StandardOpenOption.READ);
+		try {
+			// the mapping stays valid after the channel is closed
+			return new Ephemeris(channel.map(FileChannel.MapMode.READ_ONLY,
+											 0, channel.size()));
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Constructor (from a buffer in the file format)
+	 */
+	public Ephemeris(ByteBuffer buf) throws IOException {
+		this.buf = buf;
+		if (buf.capacity() < HEADER_SIZE || buf.getInt(0) != MAGIC) {
+			throw new IOException("Not an ephemeris file");
+		}
+		if (buf.getInt(4) != VERSION) {
+			throw new IOException("Unknown ephemeris version "
+								  + buf.getInt(4));
+		}
+		nBodies   = buf.getInt(8);
+		nTerms    = buf.getInt(12);
+		nSegments = buf.getInt(16);
+		fJdStart  = buf.getDouble(24);
+		fSegment  = buf.getDouble(32);
+		nDataOffset = HEADER_SIZE + BODY_SIZE * nBodies;
+		long nSize = nDataOffset
+			+ (long)nBodies * nSegments * 3 * nTerms * 8;
+		if (nBodies < 0 || nTerms < 1 || nSegments < 1 || !(fSegment > 0.0)
+			|| buf.capacity() < nSize) {
+			throw new IOException("Broken ephemeris file");
+		}
+		nPlanetBody = new int[Planet.PLUTO + 1];
+		for (int i = 0; i < nPlanetBody.length; i++) {
+			nPlanetBody[i] = -1;
+		}
+		for (int i = 0; i < nBodies; i++) {
+			int planetNo = getPlanetNo(i);
+			if (getType(i) == PLANET && 0 < planetNo
+				&& planetNo < nPlanetBody.length) {
+				nPlanetBody[planetNo] = i;
+			}
+		}
+	}
+
+	/**
+	 * Get Header Values
+	 */
+	public int getBodyCount() {
+		return nBodies;
+	}
+	public double getJdStart() {
+		return fJdStart;
+	}
+	public double getJdEnd() {
+		return fJdStart + fSegment * nSegments;
+	}
+
+	/**
+	 * Get Body Table Values
+	 */
+	public int getType(int nBody) {
+		return buf.getInt(HEADER_SIZE + BODY_SIZE * nBody);
+	}
+	public int getPlanetNo(int nBody) {
+		return buf.getInt(HEADER_SIZE + BODY_SIZE * nBody + 4);
+	}
+	public double getMaxError(int nBody) {
+		return buf.getDouble(HEADER_SIZE + BODY_SIZE * nBody + 8);
+	}
+	public String getName(int nBody) {
+		byte name[] = new byte[NAME_SIZE];
+		int nLen = 0;
+		int nOffset = HEADER_SIZE + BODY_SIZE * nBody + 16;
+		while (nLen < NAME_SIZE && buf.get(nOffset + nLen) != 0) {
+			name[nLen] = buf.get(nOffset + nLen);
+			nLen++;
+		}
+		return new String(name, 0, nLen, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Find Body (returns -1 if not found)
+	 */
+	public int findPlanet(int planetNo) {
+		if (planetNo < 0 || planetNo >= nPlanetBody.length) {
+			return -1;
+		}
+		return nPlanetBody[planetNo];
+	}
+	public int findBody(String strName) {
+		for (int i = 0; i < nBodies; i++) {
+			if (getName(i).equals(strName)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Check Time Range
+	 */
+	public boolean contains(double fJd) {
+		return fJdStart <= fJd && fJd <= getJdEnd();
+	}
+
+	/**
+	 * Check Segment of the Body at the Time is Fitted
+	 */
+	public boolean contains(int nBody, double fJd) {
+		if (nBody < 0 || nBody >= nBodies || !contains(fJd)) {
+			return false;
+		}
+		return !Double.isNaN(buf.getDouble(getOffset(nBody, fJd)));
+	}
+
+	/**
+	 * Offset of the Coefficients of the Body for the Segment at the Time
+	 */
+	private int getOffset(int nBody, double fJd) {
+		int nSegment = (int)Math.floor((fJd - fJdStart) / fSegment);
+		if (nSegment >= nSegments) {
+			nSegment = nSegments - 1;
+		}
+		return nDataOffset + ((nBody * nSegments + nSegment) * 3 * nTerms) * 8;
+	}
+
+	/**
+	 * Get Position (result is stored in fPos[0..2])
+	 */
+	public void getPos(int nBody, double fJd, double fPos[]) {
+		getState(nBody, fJd, fPos, null);
+	}
+
+	/**
+	 * Get Position (AU) and Velocity (AU/day, if fVel is not null)
+	 * (NaN if the segment is not fitted)
+	 */
+	public void getState(int nBody, double fJd, double fPos[],
+						 double fVel[]) {
+		if (nBody < 0 || nBody >= nBodies || !contains(fJd)) {
+			throw new IllegalArgumentException("Out of ephemeris");
+		}
+		int nSegment = (int)Math.floor((fJd - fJdStart) / fSegment);
+		if (nSegment >= nSegments) {
+			nSegment = nSegments - 1;
+		}
+		double fX = (fJd - fJdStart - fSegment * nSegment) * 2.0 / fSegment
+			- 1.0;
+		int nOffset = getOffset(nBody, fJd);
+		for (int i = 0; i < 3; i++) {
+			fPos[i] = Chebyshev.evaluate(buf, nOffset + nTerms * 8 * i,
+										 nTerms, fX);
+		}
+		if (fVel != null) {
+			// dx/dJD = 2 / fSegment
+			for (int i = 0; i < 3; i++) {
+				fVel[i] = Chebyshev.derivative(buf, nOffset + nTerms * 8 * i,
+											   nTerms, fX) * 2.0 / fSegment;
+			}
+		}
+	}
+
+	/**
+	 * Get Position
+	 */
+	public Xyz getPos(int nBody, double fJd) {
+		double fPos[] = new double[3];
+		getPos(nBody, fJd, fPos);
+		return new Xyz(fPos[0], fPos[1], fPos[2]);
+	}
+}
@@ -0,0 +1,280 @@
+/**
+ * Ephemeris File Writer
+ *
+ * Samples Planet.getPos / Comet.GetPos and writes Chebyshev segments
+ * in the format read by Ephemeris.  Each fit is checked against
+ * Planet.getPos / Comet.GetPos, and a segment which cannot meet the
+ * maximum error (ex. across the 1950/2060 boundary of PlanetExp, or
+ * where the Kepler equation is not solved) is written as not fitted.
+ *
+ *   java astro.EphemerisWriter FILE FROM_YEAR TO_YEAR [DAYS [TERMS
+ *                              [MAX_ERROR]]]
+ *
+ * writes all planets from FROM_YEAR/01/01 to TO_YEAR/01/01, with
+ * segments of DAYS (default: 32) and TERMS (default: 16), and the
+ * maximum error MAX_ERROR AU (default: 1e-9).
+ */
+package astro;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Vector;
+
+public class EphemerisWriter {
+
+	public static final double DEFAULT_MAX_ERROR = 1.0e-9;	// AU
+
+	private double fJdStart;
+	private double fSegment;
+	private int    nSegments;
+	private int    nTerms;
+	private double fMaxError = DEFAULT_MAX_ERROR;
+
+	/**
+	 * Bodies to be Written
+	 */
+	private Vector<Body> bodies = new Vector<Body>();
+
+	private static class Body {
+		int    nType;
+		int    planetNo;
+		Comet  comet;
+		String strName;
+		double fMaxError;		// of the fitted segments
+		int    nRejected;		// segments not fitted
+		double coef[];
+	}
+
+	/**
+	 * Constructor
+	 * (fJdEnd is rounded up to a whole segment)
+	 */
+	public EphemerisWriter(double fJdStart, double fJdEnd,
+						   double fSegment, int nTerms) {
+		if (!(fJdEnd > fJdStart) || !(fSegment > 0.0) || nTerms < 1) {
+			throw new IllegalArgumentException();
+		}
+		this.fJdStart  = fJdStart;
+		this.fSegment  = fSegment;
+		this.nSegments = (int)Math.ceil((fJdEnd - fJdStart) / fSegment);
+		this.nTerms    = nTerms;
+	}
+
+	/**
+	 * Set Maximum Error (AU) of a Segment to be Fitted
+	 */
+	public void setMaxError(double fMaxError) {
+		if (!(fMaxError > 0.0)) {
+			throw new IllegalArgumentException();
+		}
+		this.fMaxError = fMaxError;
+	}
+
+	/**
+	 * Add Planet
+	 */
+	public void addPlanet(int planetNo) {
+		Body body = new Body();
+		body.nType    = Ephemeris.PLANET;
+		body.planetNo = planetNo;
+		body.strName  = PLANET_NAME[planetNo];
+		bodies.addElement(body);
+	}
+
+	static final String PLANET_NAME[] = {
+		"Sun", "Mercury", "Venus", "Earth", "Mars", "Jupiter",
+		"Saturn", "Uranus", "Neptune", "Pluto"
+	};
+
+	/**
+	 * Add Comet (or Asteroid)
+	 */
+	public void addComet(Comet comet) {
+		Body body = new Body();
+		body.nType   = Ephemeris.COMET;
+		body.comet   = comet;
+		body.strName = comet.getName();
+		bodies.addElement(body);
+	}
+
+	/**
+	 * Sample Positions of the Body in a Segment
+	 * (a planet is computed by the theory for fJdTheory, so that the
+	 *  positions are smooth; if fJdTheory is NaN, by the theory for each
+	 *  date as Planet.getPos)
+	 */
+	private static void sample(Body body, double fJdTheory, double fJd[],
+							   double fX[], double fY[], double fZ[]) {
+		if (body.nType == Ephemeris.PLANET) {
+			if (Double.isNaN(fJdTheory)) {
+				double fPos[] = new double[3];
+				for (int i = 0; i < fJd.length; i++) {
+					Planet.getPosSeries(body.planetNo, fJd[i], fPos);
+					fX[i] = fPos[0];
+					fY[i] = fPos[1];
+					fZ[i] = fPos[2];
+				}
+			} else {
+				Planet.getPosSeries(body.planetNo, fJdTheory, fJd,
+									fX, fY, fZ);
+			}
+		} else {
+			body.comet.GetPos(fJd, fX, fY, fZ);
+		}
+	}
+
+	/**
+	 * Fit Segments of the Body
+	 */
+	private void fit(Body body) {
+		body.coef = new double[nSegments * 3 * nTerms];
+		double fJd[] = new double[nTerms];
+		double fX[]  = new double[nTerms];
+		double fY[]  = new double[nTerms];
+		double fZ[]  = new double[nTerms];
+		double fCheckJd[] = new double[nTerms + 1];
+		double fCheckX[]  = new double[nTerms + 1];
+		double fCheckY[]  = new double[nTerms + 1];
+		double fCheckZ[]  = new double[nTerms + 1];
+		double fHalf = fSegment / 2.0;
+		body.fMaxError = 0.0;
+		body.nRejected = 0;
+		for (int nSegment = 0; nSegment < nSegments; nSegment++) {
+			double fJdMid = fJdStart + fSegment * nSegment + fHalf;
+			int nOffset = nSegment * 3 * nTerms;
+			for (int k = 0; k < nTerms; k++) {
+				fJd[k] = fJdMid + fHalf * Chebyshev.node(k, nTerms);
+			}
+			// Check at the extrema (between the nodes, and both ends)
+			// against the positions as they are computed without the file
+			for (int k = 0; k <= nTerms; k++) {
+				fCheckJd[k] = fJdMid + fHalf * Chebyshev.extremum(k, nTerms);
+			}
+			double fError = 0.0;
+			try {
+				sample(body, fJdMid, fJd, fX, fY, fZ);
+				sample(body, Double.NaN, fCheckJd, fCheckX, fCheckY, fCheckZ);
+			} catch (ArithmeticException e) {
+				fError = Double.POSITIVE_INFINITY;
+			}
+			double cx[] = Chebyshev.coefficients(fX);
+			double cy[] = Chebyshev.coefficients(fY);
+			double cz[] = Chebyshev.coefficients(fZ);
+			for (int k = 0; k <= nTerms && fError <= fMaxError; k++) {
+				double fT = (fCheckJd[k] - fJdMid) / fHalf;
+				double fDx = Chebyshev.evaluate(cx, fT) - fCheckX[k];
+				double fDy = Chebyshev.evaluate(cy, fT) - fCheckY[k];
+				double fDz = Chebyshev.evaluate(cz, fT) - fCheckZ[k];
+				fError = Math.max(fError, Math.sqrt(fDx * fDx + fDy * fDy
+													+ fDz * fDz));
+			}
+			if (!(fError <= fMaxError)) {
+				Arrays.fill(body.coef, nOffset, nOffset + 3 * nTerms,
+							Double.NaN);
+				body.nRejected++;
+				continue;
+			}
+			System.arraycopy(cx, 0, body.coef, nOffset, nTerms);
+			System.arraycopy(cy, 0, body.coef, nOffset + nTerms, nTerms);
+			System.arraycopy(cz, 0, body.coef, nOffset + nTerms * 2, nTerms);
+			body.fMaxError = Math.max(body.fMaxError, fError);
+		}
+	}
+
+	/**
+	 * Write Ephemeris File
+	 */
+	public void write(File file) throws IOException {
+		for (int i = 0; i < bodies.size(); i++) {
+			fit(bodies.elementAt(i));
+		}
+		DataOutputStream out = new DataOutputStream(
+			new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			out.writeInt(Ephemeris.MAGIC);
+			out.writeInt(Ephemeris.VERSION);
+			out.writeInt(bodies.size());
+			out.writeInt(nTerms);
+			out.writeInt(nSegments);
+			out.writeInt(0);
+			out.writeDouble(fJdStart);
+			out.writeDouble(fSegment);
+			for (int i = 0; i < bodies.size(); i++) {
+				Body body = bodies.elementAt(i);
+				out.writeInt(body.nType);
+				out.writeInt(body.nType == Ephemeris.PLANET ? body.planetNo
+							 : 0);
+				out.writeDouble(body.fMaxError);
+				byte name[] = body.strName.getBytes(StandardCharsets.UTF_8);
+				int nLen = Math.min(name.length, Ephemeris.NAME_SIZE);
+				out.write(name, 0, nLen);
+				for (int j = nLen; j < Ephemeris.NAME_SIZE; j++) {
+					out.writeByte(0);
+				}
+			}
+			for (int i = 0; i < bodies.size(); i++) {
+				double coef[] = bodies.elementAt(i).coef;
+				for (int j = 0; j < coef.length; j++) {
+					out.writeDouble(coef[j]);
+				}
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Get Maximum Error of the Fitted Segments of the Body found in
+	 * write() (AU)
+	 */
+	public double getMaxError(int nBody) {
+		return bodies.elementAt(nBody).fMaxError;
+	}
+
+	/**
+	 * Get Number of Segments of the Body not Fitted in write()
+	 */
+	public int getRejectedCount(int nBody) {
+		return bodies.elementAt(nBody).nRejected;
+	}
+
+	/**
+	 * Write All Planets
+	 */
+	public static void main(String args[]) throws IOException {
+		if (args.length < 3) {
+			System.err.println("Usage: java astro.EphemerisWriter"
+							   + " FILE FROM_YEAR TO_YEAR"
+							   + " [DAYS [TERMS [MAX_ERROR]]]");
+			System.exit(1);
+		}
+		int nFrom = Integer.parseInt(args[1]);
+		int nTo   = Integer.parseInt(args[2]);
+		double fSegment = args.length > 3 ? Double.parseDouble(args[3]) : 32.0;
+		int    nTerms   = args.length > 4 ? Integer.parseInt(args[4])   : 16;
+		EphemerisWriter writer
+			= new EphemerisWriter(new ATime(nFrom, 1, 1.0, 0.0).getJd(),
+								  new ATime(nTo,   1, 1.0, 0.0).getJd(),
+								  fSegment, nTerms);
+		if (args.length > 5) {
+			writer.setMaxError(Double.parseDouble(args[5]));
+		}
+		for (int i = Planet.MERCURY; i <= Planet.PLUTO; i++) {
+			writer.addPlanet(i);
+		}
+		writer.write(new File(args[0]));
+		for (int i = Planet.MERCURY; i <= Planet.PLUTO; i++) {
+			System.out.println(PLANET_NAME[i] + ": max error "
+							   + writer.getMaxError(i - Planet.MERCURY)
+							   + " AU, "
+							   + writer.getRejectedCount(i - Planet.MERCURY)
+							   + " of " + writer.nSegments
+							   + " segments not fitted");
+		}
+	}
+}
@@ -0,0 +1,311 @@
+/**
+ * Solver of Kepler's Equation  E - e sin(E) = M  (elliptic orbit)
+ *
+ * Methods
+ *
+ *   CLASSIC   fixed-point iteration for e < 0.6, Newton's method
+ *             otherwise, from E = M + e sin(M) (as Comet has done)
+ *   NEWTON    Newton's method
+ *   HALLEY    Halley's method (third order)
+ *   MARKLEY   Markley's non-iterative method (cubic starter and one
+ *             fifth-order correction), polished by Newton if needed
+ *   TABLE     starter interpolated in a table of E(M, e), then Newton
+ *
+ * A start value (ex. E of the previous date, see getWarmStart) may be
+ * given instead of the cold start of the method.  The numbers of calls
+ * and iterations are counted, and may be shared by many threads.
+ */
+package astro;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class KeplerSolver {
+
+	public static final int CLASSIC = 0;
+	public static final int NEWTON  = 1;
+	public static final int HALLEY  = 2;
+	public static final int MARKLEY = 3;
+	public static final int TABLE   = 4;
+
+	static final String strMethod[] = {
+		"Classic", "Newton", "Halley", "Markley", "Table"
+	};
+
+	private static final double TOLERANCE = 1.0e-12;
+	private static final int    MAXAPPROX = 80;
+
+	private int nMethod;
+
+	/**
+	 * Statistics
+	 */
+	private LongAdder nCalls      = new LongAdder();
+	private LongAdder nIterations = new LongAdder();
+	private LongAdder nWarmStarts = new LongAdder();
+	private LongAccumulator nMaxIterations
+		= new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Shared Solver with CLASSIC Method
+	 */
+	private static final KeplerSolver solverDefault
+		= new KeplerSolver(CLASSIC);
+
+	/**
+	 * Constructor
+	 */
+	public KeplerSolver(int nMethod) {
+		if (nMethod < CLASSIC || nMethod > TABLE) {
+			throw new IllegalArgumentException("Unknown method " + nMethod);
+		}
+		this.nMethod = nMethod;
+	}
+
+	/**
+	 * Get Shared Solver with CLASSIC Method
+	 */
+	public static KeplerSolver getDefault() {
+		return solverDefault;
+	}
+
+	public int getMethod() {
+		return nMethod;
+	}
+
+	/**
+	 * Solve for E (cold start)
+	 */
+	public double solve(double fM, double fE) {
+		return solve(fM, fE, Double.NaN);
+	}
+
+	/**
+	 * Solve for E from fEStart (cold start if NaN)
+	 * (throws ArithmeticException if not converged)
+	 */
+	public double solve(double fM, double fE, double fEStart) {
+		boolean bWarm = !Double.isNaN(fEStart);
+		// M and start in -PI...PI (except CLASSIC)
+		double fBase = 0.0;
+		if (nMethod != CLASSIC) {
+			fBase = Math.floor(fM / (Math.PI * 2.0) + 0.5) * Math.PI * 2.0;
+			fM -= fBase;
+			if (bWarm) {
+				fEStart -= fBase;
+				if (Math.abs(fEStart - fM) > fE + 0.1) {
+					// too far from this revolution
+					bWarm = false;
+				}
+			}
+		}
+		double fE1;
+		int nIter = 0;
+		boolean bConverged = false;
+		switch (nMethod) {
+		case CLASSIC:
+			fE1 = bWarm ? fEStart : fM + fE * Math.sin(fM);
+			if (fE < 0.6) {
+				while (nIter < MAXAPPROX) {
+					double fE2 = fE1;
+					fE1 = fM + fE * Math.sin(fE2);
+					nIter++;
+					if (Math.abs(fE1 - fE2) <= TOLERANCE) {
+						bConverged = true;
+						break;
+					}
+				}
+			} else {
+				while (nIter < MAXAPPROX) {
+					double fDv1 = (fM + fE * Math.sin(fE1) - fE1);
+					double fDv2 = (1.0 - fE * Math.cos(fE1));
+					if (Math.abs(fDv1) < TOLERANCE
+						|| Math.abs(fDv2) < TOLERANCE) {
+						bConverged = true;
+						break;
+					}
+					double fDv = fDv1 / fDv2;
+					fE1 += fDv;
+					nIter++;
+					if (Math.abs(fDv) <= TOLERANCE) {
+						bConverged = true;
+						break;
+					}
+				}
+			}
+			break;
+		case HALLEY:
+			fE1 = bWarm ? fEStart : coldStart(fM, fE);
+			while (nIter < MAXAPPROX) {
+				double fSin = fE * Math.sin(fE1);
+				double f0 = fE1 - fSin - fM;
+				double f1 = 1.0 - fE * Math.cos(fE1);
+				double fDv = -f0 / (f1 - 0.5 * f0 * fSin / f1);
+				fE1 += fDv;
+				nIter++;
+				if (Math.abs(fDv) <= TOLERANCE) {
+					bConverged = true;
+					break;
+				}
+			}
+			break;
+		default:	// NEWTON, MARKLEY, TABLE
+			if (bWarm) {
+				fE1 = fEStart;
+			} else if (nMethod == MARKLEY) {
+				fE1 = markley(fM, fE);
+			} else if (nMethod == TABLE) {
+				fE1 = KeplerTable.start(fM, fE);
+			} else {
+				fE1 = coldStart(fM, fE);
+			}
+			while (nIter < MAXAPPROX) {
+				double f0 = fE1 - fE * Math.sin(fE1) - fM;
+				double fDv = -f0 / (1.0 - fE * Math.cos(fE1));
+				fE1 += fDv;
+				nIter++;
+				if (Math.abs(fDv) <= TOLERANCE) {
+					bConverged = true;
+					break;
+				}
+			}
+			break;
+		}
+		if (!bConverged) {
+			throw new ArithmeticException();
+		}
+		nCalls.increment();
+		nIterations.add(nIter);
+		nMaxIterations.accumulate(nIter);
+		if (bWarm) {
+			nWarmStarts.increment();
+		}
+		return fE1 + fBase;
+	}
+
+	/**
+	 * Cold Start for Newton and Halley (M in -PI...PI)
+	 */
+	private static double coldStart(double fM, double fE) {
+		if (fE < 0.8) {
+			return fM + fE * Math.sin(fM);
+		}
+		// Danby's start for high eccentricity
+		return fM + (fM >= 0.0 ? 0.85 : -0.85) * fE;
+	}
+
+	/**
+	 * Markley's Non-iterative Solution (M in -PI...PI)
+	 * F. L. Markley, Celestial Mechanics 63, 101 (1995)
+	 */
+	static double markley(double fM, double fE) {
+		double fPi2 = Math.PI * Math.PI;
+		double fAlpha = (3.0 * fPi2 + 1.6 * Math.PI * (Math.PI - Math.abs(fM))
+						 / (1.0 + fE)) / (fPi2 - 6.0);
+		double fD = 3.0 * (1.0 - fE) + fAlpha * fE;
+		double fQ = 2.0 * fAlpha * fD * (1.0 - fE) - fM * fM;
+		double fR = 3.0 * fAlpha * fD * (fD - 1.0 + fE) * fM + fM * fM * fM;
+		double fW = Math.pow(Math.abs(fR) + Math.sqrt(fQ * fQ * fQ + fR * fR),
+							 2.0 / 3.0);
+		double fE1 = (2.0 * fR * fW / (fW * fW + fW * fQ + fQ * fQ) + fM) / fD;
+		// fifth-order correction
+		double fSin = fE * Math.sin(fE1);
+		double fCos = fE * Math.cos(fE1);
+		double f0 = fE1 - fSin - fM;
+		double f1 = 1.0 - fCos;
+		double f2 = fSin;
+		double f3 = fCos;
+		double f4 = -fSin;
+		double fD3 = -f0 / (f1 - 0.5 * f0 * f2 / f1);
+		double fD4 = -f0 / (f1 + 0.5 * fD3 * f2 + fD3 * fD3 * f3 / 6.0);
+		double fD5 = -f0 / (f1 + 0.5 * fD4 * f2 + fD4 * fD4 * f3 / 6.0
+							+ fD4 * fD4 * fD4 * f4 / 24.0);
+		return fE1 + fD5;
+	}
+
+	/**
+	 * Start for the Next Date from E at the Previous Date
+	 * (fDM is the change of M; first order prediction)
+	 */
+	public static double getWarmStart(double fEPrev, double fE, double fDM) {
+		return fEPrev + fDM / (1.0 - fE * Math.cos(fEPrev));
+	}
+
+	/**
+	 * Statistics
+	 */
+	public long getCallCount() {
+		return nCalls.sum();
+	}
+	public long getIterationCount() {
+		return nIterations.sum();
+	}
+	public long getWarmStartCount() {
+		return nWarmStarts.sum();
+	}
+	public long getMaxIterations() {
+		return nMaxIterations.get();
+	}
+	public void resetStatistics() {
+		nCalls.reset();
+		nIterations.reset();
+		nWarmStarts.reset();
+		nMaxIterations.reset();
+	}
+
+	/**
+	 * Statistics Report
+	 */
+	public String toString() {
+		long nCall = getCallCount();
+		return "KeplerSolver(" + strMethod[nMethod] + "): " + nCall
+			+ " calls (" + getWarmStartCount() + " warm), "
+			+ (nCall > 0 ? (double)getIterationCount() / nCall : 0.0)
+			+ " iterations avg., " + getMaxIterations() + " max";
+	}
+}
+
+/**
+ * Table of E(M, e) for TABLE Starter
+ * (M in 0...PI, e in 0...1, bilinear interpolation)
+ */
+class KeplerTable {
+	static final int nDivM = 64;
+	static final int nDivE = 50;
+	static final double fTable[] = makeTable();
+
+	private static double[] makeTable() {
+		double f[] = new double[(nDivM + 1) * (nDivE + 1)];
+		for (int j = 0; j <= nDivE; j++) {
+			double fE = Math.min((double)j / nDivE, 0.999);
+			for (int i = 0; i <= nDivM; i++) {
+				double fM = Math.PI * i / nDivM;
+				double fE1 = KeplerSolver.markley(fM, fE);
+				for (int k = 0; k < 8; k++) {
+					fE1 -= (fE1 - fE * Math.sin(fE1) - fM)
+						/ (1.0 - fE * Math.cos(fE1));
+				}
+				f[j * (nDivM + 1) + i] = fE1;
+			}
+		}
+		return f;
+	}
+
+	/**
+	 * Interpolated E (M in -PI...PI)
+	 */
+	static double start(double fM, double fE) {
+		double fAbsM = Math.abs(fM);
+		double fI = fAbsM / Math.PI * nDivM;
+		double fJ = fE * nDivE;
+		int i = Math.min((int)fI, nDivM - 1);
+		int j = Math.min((int)fJ, nDivE - 1);
+		double u = fI - i;
+		double v = fJ - j;
+		int n = j * (nDivM + 1) + i;
+		double fE1 = (1.0 - v) * ((1.0 - u) * fTable[n] + u * fTable[n + 1])
+			+ v * ((1.0 - u) * fTable[n + nDivM + 1]
+				   + u * fTable[n + nDivM + 2]);
+		return (fM < 0.0) ? -fE1 : fE1;
+	}
+}
@@ -3,6 +3,7 @@
  */
 package astro;
 import astro.ATime;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Matrix {
 	public double fA11, fA12, fA13;
@@ -29,10 +30,29 @@ public class Matrix {
 		this.fA31 = fA31;	this.fA32 = fA32;	this.fA33 = fA33;
 	}
 
+	/**
+	 * Set Values
+	 */
+	public Matrix set(double fA11, double fA12, double fA13,
+					  double fA21, double fA22, double fA23,
+					  double fA31, double fA32, double fA33) {
+		this.fA11 = fA11;	this.fA12 = fA12;	this.fA13 = fA13;
+		this.fA21 = fA21;	this.fA22 = fA22;	this.fA23 = fA23;
+		this.fA31 = fA31;	this.fA32 = fA32;	this.fA33 = fA33;
+		return this;
+	}
+
 	/**
 	 * Multiplication of Matrix
 	 */
 	public Matrix Mul(Matrix mtx) {
+		return mulInto(mtx, new Matrix());
+	}
+
+	/**
+	 * Multiplication of Matrix (result is stored in dst)
+	 */
+	public Matrix mulInto(Matrix mtx, Matrix dst) {
 		double fA11 = this.fA11 * mtx.fA11 + this.fA12 * mtx.fA21
 			+ this.fA13 * mtx.fA31;
 		double fA21 = this.fA21 * mtx.fA11 + this.fA22 * mtx.fA21
@@ -54,87 +74,79 @@ public class Matrix {
 		double fA33 = this.fA31 * mtx.fA13 + this.fA32 * mtx.fA23
 			+ this.fA33 * mtx.fA33;
 
-		return new Matrix(fA11, fA12, fA13,
-						  fA21, fA22, fA23,
-						  fA31, fA32, fA33);
+		return dst.set(fA11, fA12, fA13,
+					   fA21, fA22, fA23,
+					   fA31, fA32, fA33);
 	}
 
 	/**
 	 * Multiplication of Matrix by double
 	 */
 	public Matrix Mul(double fX) {
-		double fA11 = this.fA11 * fX;
-		double fA21 = this.fA21 * fX;
-		double fA31 = this.fA31 * fX;
+		return mulInto(fX, new Matrix());
+	}
 
-		double fA12 = this.fA12 * fX;
-		double fA22 = this.fA22 * fX;
-		double fA32 = this.fA32 * fX;
+	/**
+	 * Multiplication of Matrix by double (result is stored in dst)
+	 */
+	public Matrix mulInto(double fX, Matrix dst) {
+		return dst.set(this.fA11 * fX, this.fA12 * fX, this.fA13 * fX,
+					   this.fA21 * fX, this.fA22 * fX, this.fA23 * fX,
+					   this.fA31 * fX, this.fA32 * fX, this.fA33 * fX);
+	}
 
-		double fA13 = this.fA13 * fX;
-		double fA23 = this.fA23 * fX;
-		double fA33 = this.fA33 * fX;
+	/**
+	 * Set Rotation Matrix Around X-Axis
+	 */
+	public Matrix setRotateX(double fAngle) {
+		double fSin = Math.sin(fAngle);
+		double fCos = Math.cos(fAngle);
+		return set(1.0,   0.0,  0.0,
+				   0.0,  fCos, fSin,
+				   0.0, -fSin, fCos);
+	}
+
+	/**
+	 * Set Rotation Matrix Around Y-Axis
+	 */
+	public Matrix setRotateY(double fAngle) {
+		double fSin = Math.sin(fAngle);
+		double fCos = Math.cos(fAngle);
+		return set(fCos, 0.0, -fSin,
+				    0.0, 1.0,   0.0,
+				   fSin, 0.0,  fCos);
+	}
 
-		return new Matrix(fA11, fA12, fA13,
-						  fA21, fA22, fA23,
-						  fA31, fA32, fA33);
+	/**
+	 * Set Rotation Matrix Around Z-Axis
+	 */
+	public Matrix setRotateZ(double fAngle) {
+		double fSin = Math.sin(fAngle);
+		double fCos = Math.cos(fAngle);
+		return set( fCos, fSin, 0.0,
+				   -fSin, fCos, 0.0,
+					 0.0,  0.0, 1.0);
 	}
 
 	/**
 	 * Create Rotation Matrix Around X-Axis
 	 */
 	public static Matrix RotateX(double fAngle) {
-		double fA11 =  1.0;
-		double fA12 =  0.0;
-		double fA13 =  0.0;
-		double fA21 =  0.0;
-		double fA22 =  Math.cos(fAngle);
-		double fA23 =  Math.sin(fAngle);
-		double fA31 =  0.0;
-		double fA32 = -Math.sin(fAngle);
-		double fA33 =  Math.cos(fAngle);
-
-		return new Matrix(fA11, fA12, fA13,
-						  fA21, fA22, fA23,
-						  fA31, fA32, fA33);
+		return new Matrix().setRotateX(fAngle);
 	}
 
 	/**
 	 *  Create Rotation Matrix Around Y-Axis
 	 */
 	public static Matrix RotateY(double fAngle) {
-		double fA11 =  Math.cos(fAngle);
-		double fA12 =  0.0;
-		double fA13 = -Math.sin(fAngle);
-		double fA21 =  0.0;
-		double fA22 =  1.0;
-		double fA23 =  0.0;
-		double fA31 =  Math.sin(fAngle);
-		double fA32 =  0.0;
-		double fA33 =  Math.cos(fAngle);
-
-		return new Matrix(fA11, fA12, fA13,
-						  fA21, fA22, fA23,
-						  fA31, fA32, fA33);
+		return new Matrix().setRotateY(fAngle);
 	}
 
 	/**
 	 * Create Rotation Matrix Around Z-Axis
 	 */
 	public static Matrix RotateZ(double fAngle) {
-		double fA11 =  Math.cos(fAngle);
-		double fA12 =  Math.sin(fAngle);
-		double fA13 =  0.0;
-		double fA21 = -Math.sin(fAngle);
-		double fA22 =  Math.cos(fAngle);
-		double fA23 =  0.0;
-		double fA31 =  0.0;
-		double fA32 =  0.0;
-		double fA33 =  1.0;
-
-		return new Matrix(fA11, fA12, fA13,
-						  fA21, fA22, fA23,
-						  fA31, fA32, fA33);
+		return new Matrix().setRotateZ(fAngle);
 	}
 
 	/**
@@ -181,10 +193,59 @@ public class Matrix {
 
 	/**
 	 * Create Precession Matrix
+	 *
+	 * The matrix is written directly from the angles zeta, z and theta
+	 * (and, beyond fPrecLimit centuries, multiplied by the rotation of
+	 * the general precession around the pole of the ecliptic).  Matrices
+	 * of epoch pairs are memoized, as the same pairs are asked again.
 	 */
 	static final double fGeneralPrec = 360.0/25920;
 	static final double fPrecLimit = 30.0;
 	public static Matrix PrecMatrix(double fOldEpoch, double fNewEpoch) {
+		PrecKey key = new PrecKey(fOldEpoch, fNewEpoch);
+		Matrix mtx = precMemo.get(key);
+		if (mtx == null) {
+			mtx = precMatrix(fOldEpoch, fNewEpoch);
+			if (precMemo.size() >= nPrecMemo) {
+				precMemo.clear();
+			}
+			precMemo.put(key, mtx);
+		}
+		return new Matrix(mtx.fA11, mtx.fA12, mtx.fA13,
+						  mtx.fA21, mtx.fA22, mtx.fA23,
+						  mtx.fA31, mtx.fA32, mtx.fA33);
+	}
+
+	/**
+	 * Memo of Precession Matrices by Epoch Pair (cleared if full)
+	 */
+	private static final int nPrecMemo = 256;
+	private static final ConcurrentHashMap<PrecKey, Matrix> precMemo
+		= new ConcurrentHashMap<PrecKey, Matrix>();
+
+	private static final class PrecKey {
+		private final double fOld, fNew;
+
+		PrecKey(double fOld, double fNew) {
+			this.fOld = fOld;
+			this.fNew = fNew;
+		}
+
+		public boolean equals(Object obj) {
+			if (!(obj instanceof PrecKey)) {
+				return false;
+			}
+			PrecKey key = (PrecKey)obj;
+			return Double.compare(fOld, key.fOld) == 0
+				&& Double.compare(fNew, key.fNew) == 0;
+		}
+
+		public int hashCode() {
+			return Double.hashCode(fOld) * 31 + Double.hashCode(fNew);
+		}
+	}
+
+	private static Matrix precMatrix(double fOldEpoch, double fNewEpoch) {
 		double fJd = 0.0;
 		boolean	bSwapEpoch = false;
 		boolean bOuterNewcomb = false;
@@ -226,14 +287,25 @@ public class Matrix {
 		double ftheta = ( (2004.3109 - 0.85330*fT - 0.000217*fT2)*ft
 				 - (0.42665 + 0.000217*fT)*ft2 - 0.041833*ft3 ) / 3600.0;
 
-		Matrix mtx1, mtx2, mtx3;
-		mtx1 = RotateZ((90.0 - fzeta0) * Math.PI / 180.0);
-		mtx2 = RotateX(     ftheta     * Math.PI / 180.0);
-		mtx3 = mtx2.Mul(mtx1);
-		mtx1 = RotateZ((  -90 - fzpc ) * Math.PI / 180.0);
-		
-		Matrix mtxPrec;
-		mtxPrec = mtx1.Mul(mtx3);
+		// RotateZ(-90 - z) * RotateX(theta) * RotateZ(90 - zeta)
+		double fSinZeta  = Math.sin(fzeta0 * Math.PI / 180.0);
+		double fCosZeta  = Math.cos(fzeta0 * Math.PI / 180.0);
+		double fSinZ     = Math.sin(fzpc   * Math.PI / 180.0);
+		double fCosZ     = Math.cos(fzpc   * Math.PI / 180.0);
+		double fSinTheta = Math.sin(ftheta * Math.PI / 180.0);
+		double fCosTheta = Math.cos(ftheta * Math.PI / 180.0);
+		double fCC = fCosTheta * fCosZeta;
+		double fCS = fCosTheta * fSinZeta;
+		Matrix mtxPrec = new Matrix(
+			 fCC * fCosZ - fSinZeta * fSinZ,
+			-fCS * fCosZ - fCosZeta * fSinZ,
+			-fSinTheta * fCosZ,
+			 fCC * fSinZ + fSinZeta * fCosZ,
+			-fCS * fSinZ + fCosZeta * fCosZ,
+			-fSinTheta * fSinZ,
+			 fSinTheta * fCosZeta,
+			-fSinTheta * fSinZeta,
+			 fCosTheta);
 		
 		if (bOuterNewcomb) {
 			double fDjd;
@@ -244,16 +316,24 @@ public class Matrix {
 			}
 			double fPrecPrm = -fDjd / 365.24 * fGeneralPrec * Math.PI / 180.0;
 			double fEps = ATime.getEp(fJd);
-			mtx1 = RotateX(fEps);
-			mtx2 = RotateZ(fPrecPrm);
-			mtx3 = mtx2.Mul(mtx1);
-			mtx2 = RotateX(-fEps);
-			mtx1 = mtx2.Mul(mtx3);
-			mtxPrec = mtx1.Mul(mtxPrec);
+			// RotateX(-eps) * RotateZ(prm) * RotateX(eps)
+			double fSinP = Math.sin(fPrecPrm);
+			double fCosP = Math.cos(fPrecPrm);
+			double fSinE = Math.sin(fEps);
+			double fCosE = Math.cos(fEps);
+			double fSC1 = fSinE * fCosE * (fCosP - 1.0);
+			Matrix mtxNewcomb = new Matrix(
+				 fCosP,         fSinP * fCosE, fSinP * fSinE,
+				-fSinP * fCosE, fCosE * fCosE * fCosP + fSinE * fSinE, fSC1,
+				-fSinP * fSinE, fSC1, fSinE * fSinE * fCosP + fCosE * fCosE);
+			mtxPrec = mtxNewcomb.Mul(mtxPrec);
 		}
 		
-		if(bSwapEpoch){
-			mtxPrec.Invert();
+		if (bSwapEpoch) {
+			// inverse of the rotation
+			mtxPrec = new Matrix(mtxPrec.fA11, mtxPrec.fA21, mtxPrec.fA31,
+								 mtxPrec.fA12, mtxPrec.fA22, mtxPrec.fA32,
+								 mtxPrec.fA13, mtxPrec.fA23, mtxPrec.fA33);
 		}
 		
 		return mtxPrec;
@@ -0,0 +1,22 @@
+/**
+ * Orbit Curve
+ *
+ * Orbit as a continuous curve, a point of which is given for any value
+ * of a parameter (an anomaly) from getParamMin() to getParamMax(), to be
+ * tessellated as finely as needed where it is drawn.
+ */
+package astro;
+
+public interface OrbitCurve {
+
+	/**
+	 * Range of the Parameter
+	 */
+	public double getParamMin();
+	public double getParamMax();
+
+	/**
+	 * Get Point at the Parameter fU (result is stored in dst)
+	 */
+	public Xyz getPoint(double fU, Xyz dst);
+}
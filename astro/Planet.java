@@ -19,10 +19,52 @@ public class Planet {
 	private static final double R_JD_START = 2433282.5;	// 1950.0
 	private static final double R_JD_END   = 2473459.5;	// 2060.0
 	
+	/**
+	 * Ephemeris File used if it has the planet and the date
+	 * (and the error of the planet in the file is within
+	 * EPHEMERIS_MAX_ERROR)
+	 */
+	public static final double EPHEMERIS_MAX_ERROR = 1.0e-6;	// AU
+	private static volatile Ephemeris ephemeris = null;
+
+	/**
+	 * Set Ephemeris File (null: not used)
+	 */
+	public static void setEphemeris(Ephemeris ephemeris) {
+		Planet.ephemeris = ephemeris;
+	}
+	public static Ephemeris getEphemeris() {
+		return ephemeris;
+	}
+
+	/**
+	 * Body of the Planet in the Ephemeris File used at fJd
+	 * (-1: not used; fJd NaN: any date)
+	 */
+	private static int findEphemeris(Ephemeris eph, int planetNo,
+									 double fJd) {
+		if (eph == null) {
+			return -1;
+		}
+		int nBody = eph.findPlanet(planetNo);
+		if (nBody < 0 || !(eph.getMaxError(nBody) <= EPHEMERIS_MAX_ERROR)) {
+			return -1;
+		}
+		if (!Double.isNaN(fJd) && !eph.contains(nBody, fJd)) {
+			return -1;
+		}
+		return nBody;
+	}
+
 	/**
 	 * Get Planet Position in Ecliptic Coordinates (Equinox Date)
 	 */
 	public static Xyz getPos(int planetNo, ATime atime) {
+		Ephemeris eph = ephemeris;
+		int nBody = findEphemeris(eph, planetNo, atime.getJd());
+		if (nBody >= 0) {
+			return eph.getPos(nBody, atime.getJd());
+		}
 		if (R_JD_START < atime.getJd() && atime.getJd() < R_JD_END) {
 			return PlanetExp.getPos(planetNo, atime);
 		} else {
@@ -30,4 +72,155 @@ public class Planet {
 			return planetElm.getPos();
 		}
 	}
+
+	/**
+	 * Get Planet Position (AU) and Velocity (AU/day) in Ecliptic
+	 * Coordinates (Equinox Date) in fPos[0..2] and fVel[0..2]
+	 * (derived analytically, not by differences of two positions)
+	 */
+	public static void getState(int planetNo, double fJd,
+								double fPos[], double fVel[]) {
+		Ephemeris eph = ephemeris;
+		int nBody = findEphemeris(eph, planetNo, fJd);
+		if (nBody >= 0) {
+			eph.getState(nBody, fJd, fPos, fVel);
+		} else if (R_JD_START < fJd && fJd < R_JD_END) {
+			if (!PlanetExp.getState(planetNo, fJd, fPos, fVel)) {
+				throw new IllegalArgumentException("Unknown planet "
+												   + planetNo);
+			}
+		} else {
+			new PlanetElm(planetNo, fJd).getState(fPos, fVel);
+		}
+	}
+
+	/**
+	 * Positions by the Theory Smooth between fJd0 and fJd1
+	 * (false if the theory changes between the dates, or the terms of
+	 * the perturbations of Jupiter and Saturn by PlanetElm do; the
+	 * positions or velocities may jump there)
+	 */
+	public static boolean isSmooth(int planetNo,
+								   double fJd0, double fJd1) {
+		int nTheory0 = fJd0 <= R_JD_START ? 0 : fJd0 < R_JD_END ? 1 : 2;
+		int nTheory1 = fJd1 <= R_JD_START ? 0 : fJd1 < R_JD_END ? 1 : 2;
+		if (nTheory0 != nTheory1) {
+			return false;
+		}
+		if (nTheory0 != 1
+			&& (planetNo == JUPITER || planetNo == SATURN)) {
+			return PlanetElm.isPerturbationSmooth(fJd0, fJd1);
+		}
+		return true;
+	}
+
+	/**
+	 * Get Planet Positions for each JD in fJd[]
+	 * (results are stored in fX[], fY[], fZ[])
+	 */
+	public static void getPos(int planetNo, double fJd[],
+							  double fX[], double fY[], double fZ[]) {
+		Ephemeris eph = ephemeris;
+		int nBody = findEphemeris(eph, planetNo, Double.NaN);
+		// the dates out of the ephemeris are left to the theories, and
+		// computed together by theory
+		int nExp[] = new int[fJd.length];
+		int nElm[] = new int[fJd.length];
+		int nExpCount = 0, nElmCount = 0;
+		double fPos[] = new double[3];
+		for (int i = 0; i < fJd.length; i++) {
+			if (nBody >= 0 && eph.contains(nBody, fJd[i])) {
+				eph.getPos(nBody, fJd[i], fPos);
+				fX[i] = fPos[0];
+				fY[i] = fPos[1];
+				fZ[i] = fPos[2];
+			} else if (R_JD_START < fJd[i] && fJd[i] < R_JD_END) {
+				nExp[nExpCount++] = i;
+			} else {
+				nElm[nElmCount++] = i;
+			}
+		}
+		getPosSeries(planetNo, true,  fJd, nExp, nExpCount, fX, fY, fZ);
+		getPosSeries(planetNo, false, fJd, nElm, nElmCount, fX, fY, fZ);
+	}
+
+	/**
+	 * Get Planet Positions by PlanetExp/PlanetElm (without Ephemeris)
+	 * with the theory for fJdTheory, so that the positions are smooth
+	 * even across the range of PlanetExp
+	 */
+	static void getPosSeries(int planetNo, double fJdTheory, double fJd[],
+							 double fX[], double fY[], double fZ[]) {
+		boolean bExp = (R_JD_START < fJdTheory && fJdTheory < R_JD_END);
+		getPosSeries(planetNo, bExp, fJd, null, fJd.length, fX, fY, fZ);
+	}
+
+	/**
+	 * Get Planet Positions for fJd[nIndex[k]] (k < nCount) into
+	 * fX[nIndex[k]], fY[nIndex[k]], fZ[nIndex[k]] by PlanetExp (bExp)
+	 * or PlanetElm (nIndex[k] is k if nIndex is null)
+	 */
+	private static void getPosSeries(int planetNo, boolean bExp,
+									 double fJd[], int nIndex[], int nCount,
+									 double fX[], double fY[], double fZ[]) {
+		if (nCount == 0) {
+			return;
+		}
+		if (bExp) {
+			double fJdSub[] = fJd, fXSub[] = fX, fYSub[] = fY, fZSub[] = fZ;
+			if (nIndex != null) {
+				fJdSub = new double[nCount];
+				fXSub  = new double[nCount];
+				fYSub  = new double[nCount];
+				fZSub  = new double[nCount];
+				for (int k = 0; k < nCount; k++) {
+					fJdSub[k] = fJd[nIndex[k]];
+				}
+			}
+			if (!PlanetExp.getPos(planetNo, fJdSub, nCount,
+								  fXSub, fYSub, fZSub)) {
+				throw new IllegalArgumentException("Unknown planet "
+												   + planetNo);
+			}
+			if (nIndex != null) {
+				for (int k = 0; k < nCount; k++) {
+					fX[nIndex[k]] = fXSub[k];
+					fY[nIndex[k]] = fYSub[k];
+					fZ[nIndex[k]] = fZSub[k];
+				}
+			}
+		} else {
+			double fPos[] = new double[3];
+			PlanetElm planetElm = null;
+			for (int k = 0; k < nCount; k++) {
+				int i = (nIndex != null) ? nIndex[k] : k;
+				if (planetElm == null) {
+					planetElm = new PlanetElm(planetNo, fJd[i]);
+				} else {
+					planetElm.setJd(planetNo, fJd[i]);
+				}
+				planetElm.getState(fPos, null);
+				fX[i] = fPos[0];
+				fY[i] = fPos[1];
+				fZ[i] = fPos[2];
+			}
+		}
+	}
+
+	static void getPosSeries(int planetNo, double fJd, double fPos[]) {
+		getPosSeries(planetNo, fJd, R_JD_START < fJd && fJd < R_JD_END,
+					 fPos);
+	}
+
+	private static void getPosSeries(int planetNo, double fJd, boolean bExp,
+									 double fPos[]) {
+		if (bExp) {
+			if (!PlanetExp.getPos(planetNo, fJd, fPos)) {
+				throw new IllegalArgumentException("Unknown planet "
+												   + planetNo);
+			}
+		} else {
+			new PlanetElm(planetNo, fJd).getState(fPos, null);
+		}
+	}
 }
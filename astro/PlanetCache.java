@@ -0,0 +1,224 @@
+/**
+ * Planet Position Cache
+ *
+ * Planet.getPos approximated by Chebyshev polynomials.  Time is divided
+ * into fixed granules (ex. 32 days); the polynomials of a planet for a
+ * granule are fitted when first needed, and kept in a cache of bounded
+ * size with LRU eviction.  Each fit is checked against Planet.getPos,
+ * and a granule which cannot meet the maximum error (ex. across the
+ * 1950/2060 boundary of PlanetExp) is computed by Planet.getPos.
+ */
+package astro;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class PlanetCache {
+
+	public static final double DEFAULT_GRANULE   = 32.0;	// day
+	public static final double DEFAULT_MAX_ERROR = 1.0e-9;	// AU
+	public static final int    DEFAULT_CAPACITY  = 9 * 64;	// granules
+
+	/**
+	 * Number of Samples for Fitting (maximum number of terms)
+	 */
+	private static final int MAX_TERMS = 32;
+
+	private double fGranule;
+	private double fMaxError;
+	private LinkedHashMap<Long, Granule> cache;
+
+	/**
+	 * Statistics
+	 */
+	private double fFitError = 0.0;	// maximum error of the fitted granules
+	private long   nFitted   = 0;	// granules fitted
+	private long   nDirect   = 0;	// granules by Planet.getPos
+	private long   nTerms    = 0;	// total of terms of the fitted granules
+	private long   nHit      = 0;
+	private long   nMiss     = 0;
+
+	/**
+	 * Shared Cache with the Default Settings
+	 */
+	private static PlanetCache cacheDefault;
+
+	/**
+	 * Polynomials of a Planet for a Granule
+	 */
+	private static class Granule {
+		double fJdMid;			// center of granule
+		double cx[], cy[], cz[];	// null if by Planet.getPos
+	}
+
+	/**
+	 * Constructor
+	 */
+	public PlanetCache(double fGranule, double fMaxError,
+					   final int nCapacity) {
+		if (!(fGranule > 0.0) || !(fMaxError > 0.0) || nCapacity < 1) {
+			throw new IllegalArgumentException();
+		}
+		this.fGranule  = fGranule;
+		this.fMaxError = fMaxError;
+		this.cache = new LinkedHashMap<Long, Granule>(16, 0.75f, true) {
+			protected boolean removeEldestEntry(Map.Entry<Long, Granule>
+												eldest) {
+				return size() > nCapacity;
+			}
+		};
+	}
+
+	/**
+	 * Constructor with Default Settings
+	 */
+	public PlanetCache() {
+		this(DEFAULT_GRANULE, DEFAULT_MAX_ERROR, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Get Shared Cache with Default Settings
+	 */
+	public static synchronized PlanetCache getDefault() {
+		if (cacheDefault == null) {
+			cacheDefault = new PlanetCache();
+		}
+		return cacheDefault;
+	}
+
+	/**
+	 * Get Planet Position in Ecliptic Coordinates (Equinox Date)
+	 */
+	public Xyz getPos(int planetNo, ATime atime) {
+		double fJd = atime.getJd();
+		Granule granule = getGranule(planetNo, fJd);
+		if (granule.cx == null) {
+			return Planet.getPos(planetNo, atime);
+		}
+		double fX = (fJd - granule.fJdMid) * 2.0 / fGranule;
+		return new Xyz(Chebyshev.evaluate(granule.cx, fX),
+					   Chebyshev.evaluate(granule.cy, fX),
+					   Chebyshev.evaluate(granule.cz, fX));
+	}
+
+	/**
+	 * Get Granule including fJd (fitted if not in the cache)
+	 */
+	private synchronized Granule getGranule(int planetNo, double fJd) {
+		long nIndex = (long)Math.floor(fJd / fGranule);
+		Long key = Long.valueOf(nIndex * 16 + planetNo);
+		Granule granule = cache.get(key);
+		if (granule != null) {
+			nHit++;
+			return granule;
+		}
+		nMiss++;
+		granule = fit(planetNo, ((double)nIndex + 0.5) * fGranule);
+		cache.put(key, granule);
+		return granule;
+	}
+
+	/**
+	 * Fit Chebyshev Polynomials to Planet.getPos around fJdMid
+	 */
+	private Granule fit(int planetNo, double fJdMid) {
+		Granule granule = new Granule();
+		granule.fJdMid = fJdMid;
+		double fHalf = fGranule / 2.0;
+
+		// Samples at Chebyshev nodes
+		double fJd[] = new double[MAX_TERMS];
+		double fX[]  = new double[MAX_TERMS];
+		double fY[]  = new double[MAX_TERMS];
+		double fZ[]  = new double[MAX_TERMS];
+		for (int k = 0; k < MAX_TERMS; k++) {
+			fJd[k] = fJdMid + fHalf * Chebyshev.node(k, MAX_TERMS);
+		}
+		Planet.getPos(planetNo, fJd, fX, fY, fZ);
+		double cx[] = Chebyshev.coefficients(fX);
+		double cy[] = Chebyshev.coefficients(fY);
+		double cz[] = Chebyshev.coefficients(fZ);
+
+		// Drop higher terms while their sum is within half the error
+		int nCount = MAX_TERMS;
+		double fDropped = 0.0;
+		while (nCount > 1) {
+			int j = nCount - 1;
+			double fTerm = Math.abs(cx[j]) + Math.abs(cy[j]) + Math.abs(cz[j]);
+			if (fDropped + fTerm > fMaxError / 2.0) {
+				break;
+			}
+			fDropped += fTerm;
+			nCount--;
+		}
+		cx = truncate(cx, nCount);
+		cy = truncate(cy, nCount);
+		cz = truncate(cz, nCount);
+
+		// Check at the extrema (between the nodes, and both ends)
+		double fCheckJd[] = new double[MAX_TERMS + 1];
+		double fCheckX[]  = new double[MAX_TERMS + 1];
+		double fCheckY[]  = new double[MAX_TERMS + 1];
+		double fCheckZ[]  = new double[MAX_TERMS + 1];
+		for (int k = 0; k <= MAX_TERMS; k++) {
+			fCheckJd[k] = fJdMid + fHalf * Chebyshev.extremum(k, MAX_TERMS);
+		}
+		Planet.getPos(planetNo, fCheckJd, fCheckX, fCheckY, fCheckZ);
+		double fError = 0.0;
+		for (int k = 0; k <= MAX_TERMS; k++) {
+			double fT = (fCheckJd[k] - fJdMid) / fHalf;
+			double fDx = Chebyshev.evaluate(cx, fT) - fCheckX[k];
+			double fDy = Chebyshev.evaluate(cy, fT) - fCheckY[k];
+			double fDz = Chebyshev.evaluate(cz, fT) - fCheckZ[k];
+			fError = Math.max(fError,
+							  Math.sqrt(fDx * fDx + fDy * fDy + fDz * fDz));
+		}
+
+		if (fError > fMaxError) {
+			nDirect++;
+			return granule;
+		}
+		granule.cx = cx;
+		granule.cy = cy;
+		granule.cz = cz;
+		fFitError = Math.max(fFitError, fError);
+		nFitted++;
+		nTerms += nCount;
+		return granule;
+	}
+
+	private static double[] truncate(double c[], int nCount) {
+		double cNew[] = new double[nCount];
+		System.arraycopy(c, 0, cNew, 0, nCount);
+		return cNew;
+	}
+
+	/**
+	 * Get Settings
+	 */
+	public double getGranule() {
+		return this.fGranule;
+	}
+	public double getMaxError() {
+		return this.fMaxError;
+	}
+
+	/**
+	 * Maximum Error of the Fitted Granules found in the Check (AU)
+	 */
+	public synchronized double getFitError() {
+		return this.fFitError;
+	}
+
+	/**
+	 * Statistics Report
+	 */
+	public synchronized String toString() {
+		return "PlanetCache: granule " + fGranule + " days"
+			+ ", max error " + fMaxError + " AU"
+			+ ", fitted error " + fFitError + " AU"
+			+ ", " + nFitted + " fitted (" + (nFitted > 0 ? nTerms / nFitted : 0)
+			+ " terms avg.), " + nDirect + " direct"
+			+ ", " + nHit + " hits, " + nMiss + " misses";
+	}
+}
@@ -11,6 +11,9 @@ class PlanetElm {
 	double axis;	/* Semimajor Axis */
 	double e;		/* Eccentricity */
 	double incl;	/* Inclination */
+	double dL, dPeri, dNode, dIncl;	/* d/dt of L, peri, node, incl
+									   (degree/day) */
+	double dAxis, dEcc;				/* d/dt of axis (AU/day), e (/day) */
 	//
 	// Mercury
 	//
@@ -250,20 +253,85 @@ class PlanetElm {
 		return p3;
 	}
 	
+	/**
+	 * d/dt of the Correction for Perturbation (/day)
+	 */
+	double perturbationElementRate(double eta, double zeta, int[] tbl) {
+		int e1 = (int)(eta/30.0);
+		int e2 = e1 + 1;
+		int z1 = (int)(zeta/30.0);
+		int z2 = z1 + 1;
+		
+		if(e1 >= 12 && z1 >= 12){
+			return 0.0;
+		}
+		
+		if(e1 >= 12){
+			double v1 = (double)tbl[z1*13 + e1];
+			double v3 = (double)tbl[z2*13 + e1];
+			return (v3 - v1)/30.0 * dZETA;
+		}
+		
+		if(z1 >= 12){
+			double v1 = (double)tbl[z1*13 + e1];
+			double v2 = (double)tbl[z1*13 + e2];
+			return (v2 - v1)/30.0 * dETA;
+		}
+		
+		double v1 = (double)tbl[z1*13 + e1];
+		double v2 = (double)tbl[z1*13 + e2];
+		double v3 = (double)tbl[z2*13 + e1];
+		double v4 = (double)tbl[z2*13 + e2];
+		double fz = zeta/30.0 - (double)z1;
+		double fe = eta/30.0 - (double)e1;
+		double p1 = v1 + (v3 - v1)*fz;
+		double p2 = v2 + (v4 - v2)*fz;
+		return (p2 - p1)/30.0 * dETA
+			+ ((v3 - v1)*(1.0 - fe) + (v4 - v2)*fe)/30.0 * dZETA;
+	}
+	
+	/**
+	 * d/dt of ETA and ZETA (degree/day); the other terms of the
+	 * perturbations are constant within a year
+	 */
+	static final double dETA  = 0.033459;
+	static final double dZETA = 0.049630;
+	
+	/**
+	 * Year of the Perturbations of Jupiter and Saturn
+	 */
+	private static int getYear(double jd) {
+		return (int)((jd - 1721423.5) / 365.244 + 1.0);
+	}
+	
+	/**
+	 * Perturbations of Jupiter and Saturn Smooth between jd0 and jd1
+	 * (their terms other than ETA and ZETA change at the beginning of a
+	 * year, and the tables are interpolated linearly between the values
+	 * every 30 degrees of ETA and ZETA, and do not match where they wrap)
+	 */
+	static boolean isPerturbationSmooth(double jd0, double jd1) {
+		return getYear(jd0) == getYear(jd1)
+			&& Math.floor((86.1 + dETA * (jd0 - 1721057.0)) / 30.0)
+			== Math.floor((86.1 + dETA * (jd1 - 1721057.0)) / 30.0)
+			&& Math.floor((89.1 + dZETA * (jd0 - 1721057.0)) / 30.0)
+			== Math.floor((89.1 + dZETA * (jd1 - 1721057.0)) / 30.0);
+	}
+	
 	/**
 	 * Mean orbital element of Jupiter with perturbation
 	 */
 	private void perturbationJupiter(double jd) {
-		int year = (int)((jd - 1721423.5) / 365.244 + 1.0);
+		int year = getYear(jd);
 		double T = year/1000.0;
 		
 		double L7 = (0.42 - 0.075*T + 0.015*T*T - 0.003*T*T*T) 
 			* UdMath.udsin( (T - 0.62)*360.0/0.925 );
 		double PS7 = 0.02 * UdMath.udsin( (T + 0.1)*360.0/0.925 );
 		double PH7 = 0.03 * UdMath.udsin( (T + 0.36)*360.0/0.925 );
-		double ETA = UdMath.degmal(86.1 + 0.033459
+		double ETA = UdMath.degmal(86.1 + dETA
 								   * ( jd - 1721057.0 ));
-		double ZETA = UdMath.degmal(89.1 + 0.049630
+		double ZETA = UdMath.degmal(89.1 + dZETA
 									* ( jd - 1721057.0 ));
 		double L8 = perturbationElement(ETA, ZETA, perturbJup1)/1000.0;
 		double PS8 = perturbationElement(ETA, ZETA, perturbJup2)/1000.0;
@@ -278,13 +346,19 @@ class PlanetElm {
 		L += ( L7 + L8 );
 		peri += (PS7 + PS8) / UdMath.udsin(PH);
 		e = UdMath.udsin(PH + PH7 + PH8);
+		/* d/dt */
+		dL    += perturbationElementRate(ETA, ZETA, perturbJup1)/1000.0;
+		dPeri += perturbationElementRate(ETA, ZETA, perturbJup2)/1000.0
+			/ UdMath.udsin(PH);
+		dEcc   = UdMath.udcos(PH + PH7 + PH8) * UdMath.deg2rad(
+			perturbationElementRate(ETA, ZETA, perturbJup3)/1000.0);
 	}
 	
 	/**
 	 * Mean orbital element of Saturn with perturbation
 	 */
 	void perturbationSaturn(double jd) {
-		int year = (int)((jd - 1721423.5) / 365.244 + 1.0);
+		int year = getYear(jd);
 		double T = year/1000.0;
 		
 		double AT = 0.88 - 0.0633*T + 0.03*T*T - 0.0006*T*T*T;
@@ -295,9 +369,9 @@ class PlanetElm {
 			* UdMath.udsin((T - 0.32)*360.0/0.95);
 		double AX7 = -0.050 + (0.004 - 0.0005*T)
 			* UdMath.udsin((T - 0.35)*360.0/0.95);
-		double ETA = UdMath.degmal(86.1 + 0.033459
+		double ETA = UdMath.degmal(86.1 + dETA
 								   * ( jd - 1721057.0 ));
-		double ZETA = UdMath.degmal(89.1 + 0.049630
+		double ZETA = UdMath.degmal(89.1 + dZETA
 									* ( jd - 1721057.0 ));
 		double L8 = perturbationElement(ETA, ZETA, perturbSat1)/100.0;
 		double PS8 = perturbationElement(ETA, ZETA, perturbSat2)/100.0;
@@ -312,6 +386,13 @@ class PlanetElm {
 		peri += (PS7 + PS8) / UdMath.udsin(PH);
 		e = UdMath.udsin(PH + PH7 + PH8);
 		axis += AX7 + AX8;
+		/* d/dt */
+		dL    += perturbationElementRate(ETA, ZETA, perturbSat1)/100.0;
+		dPeri += perturbationElementRate(ETA, ZETA, perturbSat2)/100.0
+			/ UdMath.udsin(PH);
+		dEcc   = UdMath.udcos(PH + PH7 + PH8) * UdMath.deg2rad(
+			perturbationElementRate(ETA, ZETA, perturbSat3)/100.0);
+		dAxis += perturbationElementRate(ETA, ZETA, perturbSat4)/1000.0;
 	}
 	
 	/**
@@ -350,8 +431,20 @@ class PlanetElm {
 		peri = UdMath.degmal(elmCf.peri + elmCf.p1 * C1 
 							 + elmCf.p2 * C2 + elmCf.p3 * C1 * C2
 							 - node);
+		/* d/dt (without perturbation) */
+		dL    = (elmCf.L1 + 2.0 * elmCf.L2 * C1 + 3.0 * elmCf.L3 * C2)
+			/ 36525.0;
+		dNode = (elmCf.n1 + 2.0 * elmCf.n2 * C1 + 3.0 * elmCf.n3 * C2)
+			/ 36525.0;
+		dPeri = (elmCf.p1 + 2.0 * elmCf.p2 * C1 + 3.0 * elmCf.p3 * C2)
+			/ 36525.0 - dNode;
+		dEcc  = (elmCf.e1 + 2.0 * elmCf.e2 * C1 + 3.0 * elmCf.e3 * C2)
+			/ 36525.0;
+		dIncl = (elmCf.i1 + 2.0 * elmCf.i2 * C1 + 3.0 * elmCf.i3 * C2)
+			/ 36525.0;
 		/* Semimajor Axis */
 		axis = elmCf.axis;
+		dAxis = 0.0;
 		/* Eccentricity */
 		e    = UdMath.degmal(elmCf.e    + elmCf.e1 * C1 
 							 + elmCf.e2 * C2 + elmCf.e3 * C1 * C2 );
@@ -399,6 +492,13 @@ class PlanetElm {
 		/* Argument of Perihelion */
 		peri =	UdMath.degmal(elmCf.peri + elmCf.p1 * T1
 							  + elmCf.p2 *T2 - node);
+		/* d/dt */
+		dL    = elmCf.L1 + 2.0 * elmCf.L2 * T1 / 36525.0;
+		dNode = (elmCf.n1 + 2.0 * elmCf.n2 * T1) / 36525.0;
+		dPeri = (elmCf.p1 + 2.0 * elmCf.p2 * T1) / 36525.0 - dNode;
+		dAxis = (elmCf.a1 + 2.0 * elmCf.a2 * T1) / 36525.0;
+		dEcc  = (elmCf.e1 + 2.0 * elmCf.e2 * T1) / 36525.0;
+		dIncl = (elmCf.i1 + 2.0 * elmCf.i2 * T1) / 36525.0;
 		/* Semimajor Axis */
 		axis = UdMath.degmal(elmCf.axis + elmCf.a1 * T1
 							 + elmCf.a2 *T2);
@@ -423,25 +523,44 @@ class PlanetElm {
 		node = 0.0;	/* no ascending node for the Earth */
 		incl = 0.0;	/* no inclination    for the Earth */
 		e    = 0.0167498 - 4.258e-5*c - 1.37e-7*c2;
+		dL    = (36000.769325 + 2.0 * 7.22222e-4 * c) / 36525.0;
+		dPeri = (1.717697 + 2.0 * 4.83333e-4 * c + 3.0 * 2.77777e-6 * c2)
+			/ 36525.0;
+		dNode = 0.0;
+		dIncl = 0.0;
+		dEcc  = (-4.258e-5 - 2.0 * 1.37e-7 * c) / 36525.0;
 		axis = 1.00000129;
+		dAxis = 0.0;
 	}
 	
 	public PlanetElm(int planetNo, ATime atime) {
+		this(planetNo, atime.getJd());
+	}
+	
+	PlanetElm(int planetNo, double jd) {
+		setJd(planetNo, jd);
+	}
+	
+	/**
+	 * Set the Elements to those at jd
+	 * (so that one object serves a series of dates)
+	 */
+	void setJd(int planetNo, double jd) {
 		switch (planetNo) {
 		case Planet.EARTH:
-			getPlanetElmEarth(atime.getJd());
+			getPlanetElmEarth(jd);
 			break;
 		case Planet.MERCURY:
 		case Planet.VENUS:
 		case Planet.MARS:
 		case Planet.JUPITER:
 		case Planet.SATURN:
-			getPlanetElm1(planetNo, atime.getJd());
+			getPlanetElm1(planetNo, jd);
 			break;
 		case Planet.URANUS:
 		case Planet.NEPTUNE:
 		case Planet.PLUTO:
-			getPlanetElm2(planetNo, atime.getJd());
+			getPlanetElm2(planetNo, jd);
 			break;
 		default:
 			throw new ArithmeticException();
@@ -452,13 +571,26 @@ class PlanetElm {
 	 * Orbital element to Xyz
 	 */
 	public Xyz getPos() {
+		double fPos[] = new double[3];
+		getState(fPos, null);
+		return new Xyz(fPos[0], fPos[1], fPos[2]);
+	}
+
+	/**
+	 * Orbital element to position, and velocity (per day) if fVel is
+	 * not null (the derivative of the position by the rates of all the
+	 * elements, with the perturbations of Jupiter and Saturn)
+	 */
+	void getState(double fPos[], double fVel[]) {
 		double re = this.e * 180.0 / Math.PI;
 		double E, M, oldE;
 		E = M = this.L - (this.peri + this.node);
+		// solved to the last digits, since the residual of a loose
+		// tolerance jumps when the number of iterations changes
 		do {
 			oldE = E;
 			E = M + re * UdMath.udsin(oldE);
-		} while (Math.abs(E - oldE) > 1.0e-5 * 180.0 / Math.PI);
+		} while (Math.abs(E - oldE) > 1.0e-12 * 180.0 / Math.PI);
 		double px = this.axis * (UdMath.udcos(E) - this.e);
 		double py = this.axis * Math.sqrt(1.0 - this.e * this.e)
 			* UdMath.udsin(E);
@@ -470,14 +602,44 @@ class PlanetElm {
 		double sinincl = UdMath.udsin(this.incl);
 		double cosincl = UdMath.udcos(this.incl);
 		
-		double xc =  px * (cosnode * cosperi - sinnode * cosincl * sinperi)
-			- py * (cosnode * sinperi + sinnode * cosincl * cosperi);
-		double yc =  px * (sinnode * cosperi + cosnode * cosincl * sinperi)
-			- py * (sinnode * sinperi - cosnode * cosincl * cosperi);
-		double zc =  px * (sinincl * sinperi)
-			+ py * (sinincl * cosperi);
+		double ax = cosnode * cosperi - sinnode * cosincl * sinperi;
+		double bx = cosnode * sinperi + sinnode * cosincl * cosperi;
+		double ay = sinnode * cosperi + cosnode * cosincl * sinperi;
+		double by = sinnode * sinperi - cosnode * cosincl * cosperi;
+		double az = sinincl * sinperi;
+		double bz = sinincl * cosperi;
+		fPos[0] = px * ax - py * bx;
+		fPos[1] = px * ay - py * by;
+		fPos[2] = px * az + py * bz;
 		
-		return new Xyz(xc, yc, zc);
+		if (fVel != null) {
+			double sinE = UdMath.udsin(E);
+			double cosE = UdMath.udcos(E);
+			double fSqrt = Math.sqrt(1.0 - this.e * this.e);
+			// M = E - e sin(E), so dE/dt = (dM/dt + sin(E) de/dt)
+			//                              / (1 - e cos(E))
+			double fDM = UdMath.deg2rad(this.dL - this.dPeri - this.dNode);
+			double fDE = (fDM + sinE * this.dEcc) / (1.0 - this.e * cosE);
+			double fDPeri = UdMath.deg2rad(this.dPeri);
+			double fDNode = UdMath.deg2rad(this.dNode);
+			double fDIncl = UdMath.deg2rad(this.dIncl);
+			// on the orbital plane, and rotation of perihelion
+			double vx = this.dAxis * (cosE - this.e)
+				- this.axis * (sinE * fDE + this.dEcc)
+				- py * fDPeri;
+			double vy = this.dAxis * fSqrt * sinE
+				+ this.axis * (fSqrt * cosE * fDE
+							   - this.e * this.dEcc / fSqrt * sinE)
+				+ px * fDPeri;
+			// rotation of node around the pole of ecliptic, and
+			// rotation of inclination around the line of nodes
+			fVel[0] = vx * ax - vy * bx - fPos[1] * fDNode
+				+ sinnode * fPos[2] * fDIncl;
+			fVel[1] = vx * ay - vy * by + fPos[0] * fDNode
+				- cosnode * fPos[2] * fDIncl;
+			fVel[2] = vx * az + vy * bz
+				+ (cosnode * fPos[1] - sinnode * fPos[0]) * fDIncl;
+		}
 	}
 }
 
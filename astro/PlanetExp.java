@@ -342,95 +342,214 @@ public class PlanetExp {
 		new PlanetExpP0( 0.000007,   62.0,   450.4),
 		new PlanetExpP0( 0.000007,  105.0,	 329.6),
 	};
+	//
+	// Series in Flat Arrays with Radian Coefficients
+	// (made from the tables above)
+	//
+	static final PlanetExpSeries MercuryLambdaS
+		= PlanetExpSeries.ratePhase(MercuryLambda);
+	static final PlanetExpSeries MercuryBetaS
+		= PlanetExpSeries.ratePhase(MercuryBeta);
+	static final PlanetExpSeries MercuryRS
+		= PlanetExpSeries.ratePhase(MercuryR);
+	static final PlanetExpSeries VenusL0S = PlanetExpSeries.phaseRate(VenusL0);
+	static final PlanetExpSeries VenusL1S = PlanetExpSeries.phaseRate(VenusL1);
+	static final PlanetExpSeries VenusQS  = PlanetExpSeries.phaseRate(VenusQ);
+	static final PlanetExpSeries MarsL0S  = PlanetExpSeries.phaseRate(MarsL0);
+	static final PlanetExpSeries MarsL1S  = PlanetExpSeries.phaseRate(MarsL1);
+	static final PlanetExpSeries MarsQS   = PlanetExpSeries.phaseRate(MarsQ);
+	static final PlanetExpSeries JupiterNS
+		= PlanetExpSeries.phaseRate(JupiterN);
+	static final PlanetExpSeries JupiterBS
+		= PlanetExpSeries.phaseRate(JupiterB);
+	static final PlanetExpSeries JupiterQS
+		= PlanetExpSeries.phaseRate(JupiterQ);
+	static final PlanetExpSeries SaturnNS = PlanetExpSeries.phaseRate(SaturnN);
+	static final PlanetExpSeries SaturnBS = PlanetExpSeries.phaseRate(SaturnB);
+	static final PlanetExpSeries SaturnQS = PlanetExpSeries.phaseRate(SaturnQ);
+	static final PlanetExpSeries UranusLambdaS
+		= PlanetExpSeries.ratePhase(UranusLambda);
+	static final PlanetExpSeries UranusBetaS
+		= PlanetExpSeries.ratePhase(UranusBeta);
+	static final PlanetExpSeries UranusRS
+		= PlanetExpSeries.ratePhase(UranusR);
+	static final PlanetExpSeries NeptuneLambdaS
+		= PlanetExpSeries.ratePhase(NeptuneLambda);
+	static final PlanetExpSeries NeptuneBetaS
+		= PlanetExpSeries.ratePhase(NeptuneBeta);
+	static final PlanetExpSeries NeptuneRS
+		= PlanetExpSeries.ratePhase(NeptuneR);
+	static final PlanetExpSeries PlutoLambdaS
+		= PlanetExpSeries.ratePhase(PlutoLambda);
+	static final PlanetExpSeries PlutoBetaS
+		= PlanetExpSeries.ratePhase(PlutoBeta);
+	static final PlanetExpSeries PlutoRS
+		= PlanetExpSeries.ratePhase(PlutoR);
+	static final PlanetExpSeries SunLambdaS
+		= PlanetExpSeries.phaseRate(SunLambda);
+	static final PlanetExpSeries SunQS = makeSunQS();
+
+	/**
+	 * SunQ has been evaluated as a * cos(b + b * T)
+	 */
+	private static PlanetExpSeries makeSunQS() {
+		PlanetExpSeries series = new PlanetExpSeries(SunQ.length);
+		for (int i = 0; i < SunQ.length; i++) {
+			series.set(i, SunQ[i].a, SunQ[i].b, SunQ[i].b);
+		}
+		return series;
+	}
+
+	/**
+	 * d/dT of (a + b * T) * sin(c + d * T) and (a + b * T) * cos(c + d * T)
+	 * (c and d in degree)
+	 */
+	private static double dsin(double a, double b, double c, double d,
+							   double fT) {
+		double fArg = UdMath.deg2rad(c + d * fT);
+		return b * Math.sin(fArg)
+			+ (a + b * fT) * Math.cos(fArg) * UdMath.deg2rad(d);
+	}
+	private static double dcos(double a, double b, double c, double d,
+							   double fT) {
+		double fArg = UdMath.deg2rad(c + d * fT);
+		return b * Math.cos(fArg)
+			- (a + b * fT) * Math.sin(fArg) * UdMath.deg2rad(d);
+	}
+
+	/**
+	 * Velocity from Position and Derivatives of log(Radius), Lambda and
+	 * Beta (radian) by T, fScale is dT/dJD
+	 */
+	private static void getVel(double fPos[], double fDLogR,
+							   double fDLambda, double fDBeta,
+							   double fScale, double fVel[]) {
+		double fRho = Math.sqrt(fPos[0] * fPos[0] + fPos[1] * fPos[1]);
+		double fZRho = fPos[2] / fRho * fDBeta;
+		fVel[0] = (fDLogR * fPos[0] - fZRho * fPos[0] - fDLambda * fPos[1])
+			* fScale;
+		fVel[1] = (fDLogR * fPos[1] - fZRho * fPos[1] + fDLambda * fPos[0])
+			* fScale;
+		fVel[2] = (fDLogR * fPos[2] + fRho * fDBeta) * fScale;
+	}
+
+	/**
+	 * dT/dJD and dT2/dJD (see ATime)
+	 */
+	private static final double DT_DJD  = (1.0 + 0.0317e-6) / 365.25;
+	private static final double DT2_DJD = 1.0 / 36525.0;
+	private static final double LN10    = Math.log(10.0);
+
 	/**
 	 * Get Position of the Earth
+	 * (and velocity per day if fVel is not null; the sums of the series
+	 *  are fSum[] if not null, see getPos(int, double[], ...))
 	 */
-	private static Xyz getPosExp0(double fT) {
+	private static void getPosExp0(double fT, double fPos[], double fVel[],
+								   double fSum[]) {
+		double fDot[] = (fVel != null) ? new double[2] : null;	// d/dT
 		double fLambda = 279.0358 + 360.00769 * fT
 			+ ( 1.9159 - 0.00005 * fT) 
 				* UdMath.udsin((356.531)+ ( 359.991) * fT);
-		for (int i = 0; i < SunLambda.length; i++) {
-			fLambda += SunLambda[i].a * UdMath.udsin(SunLambda[i].b
-													 + SunLambda[i].c * fT);
-		}
+		fLambda += (fSum != null) ? fSum[0] : SunLambdaS.sumSin(fT, fDot, 0);
 		fLambda += 0.0057;
 		fLambda = UdMath.deg2rad(UdMath.degmal(fLambda));
 		double fBeta = 0.0;
 		
 		double fq = (- 0.007261+0.0000002 * fT) * UdMath.udcos((356.53)
 										   + (359.991) * fT) + 0.000030;
-		for (int i = 0; i < SunQ.length; i++) {
-			fq += SunQ[i].a * UdMath.udcos(SunQ[i].b + SunQ[i].b * fT);
-		}
+		fq += (fSum != null) ? fSum[1] : SunQS.sumCos(fT, fDot, 1);
 		
 		double fRadius = Math.pow(10.0, fq);
 
-		return new Xyz(-fRadius * Math.cos(fBeta) * Math.cos(fLambda),
-					   -fRadius * Math.cos(fBeta) * Math.sin(fLambda),
-					   -fRadius * Math.sin(fBeta));
+		fPos[0] = -fRadius * Math.cos(fBeta) * Math.cos(fLambda);
+		fPos[1] = -fRadius * Math.cos(fBeta) * Math.sin(fLambda);
+		fPos[2] = -fRadius * Math.sin(fBeta);
+
+		if (fVel != null) {
+			double fDLambda = 360.00769 + fDot[0]
+				+ dsin(1.9159, -0.00005, 356.531, 359.991, fT);
+			double fDq = fDot[1]
+				+ dcos(-0.007261, 0.0000002, 356.53, 359.991, fT);
+			getVel(fPos, LN10 * fDq, UdMath.deg2rad(fDLambda), 0.0,
+				   DT_DJD, fVel);
+		}
 	}
 
 	/**
 	 * Get Position of Venus and Mars
 	 */
-	private static Xyz getPosExp1(int planetNo, double fT) {
-		PlanetExpP0 ParamL0[], ParamL1[], ParamQ[];
+	private static void getPosExp1(int planetNo, double fT, double fPos[],
+								   double fVel[], double fSum[]) {
+		PlanetExpSeries ParamL0, ParamL1, ParamQ;
 		PlanetExpP1 ParamP;
 		switch (planetNo) {
 		case Planet.VENUS:
-			ParamL0 = VenusL0;
-			ParamL1 = VenusL1;
-			ParamQ  = VenusQ;
+			ParamL0 = VenusL0S;
+			ParamL1 = VenusL1S;
+			ParamQ  = VenusQS;
 			ParamP  = VenusP;
 			break;
 		case Planet.MARS:
-			ParamL0 = MarsL0;
-			ParamL1 = MarsL1;
-			ParamQ  = MarsQ;
+			ParamL0 = MarsL0S;
+			ParamL1 = MarsL1S;
+			ParamQ  = MarsQS;
 			ParamP  = MarsP;
 			break;
 		default:
 			throw new ArithmeticException();
 		}
+		double fDot[] = (fVel != null) ? new double[3] : null;	// d/dT
 		double L1 = (ParamP.L6 + ParamP.L7 * fT)
 						* UdMath.udsin(ParamP.L8 + ParamP.L9 * fT);
-		for (int i = 0; i < ParamL1.length; i++) {
-			L1 += ParamL1[i].a * UdMath.udsin(ParamL1[i].b
-											+ ParamL1[i].c * fT);
-		}
+		L1 += (fSum != null) ? fSum[0] : ParamL1.sumSin(fT, fDot, 0);
 		double L0 = ParamP.L1 + ParamP.L2 * fT
 			+ ParamP.L3 * UdMath.udsin(ParamP.L4 + ParamP.L5 * fT + 2.0 * L1);
-		for (int i = 0; i < ParamL0.length; i++) {
-			L0 += ParamL0[i].a * UdMath.udsin(ParamL0[i].b
-											+ ParamL0[i].c * fT);
-		}
+		L0 += (fSum != null) ? fSum[1] : ParamL0.sumSin(fT, fDot, 1);
 		double fLambda = UdMath.deg2rad(UdMath.degmal(L0 + L1));
 		double fBeta = Math.asin(ParamP.B1 * UdMath.udsin(ParamP.B2
 												+ ParamP.B3 * fT + L1));
 		double fq = (ParamP.q1 + ParamP.q2 * fT)
 					* UdMath.udcos(ParamP.q3 + ParamP.q4 * fT) + ParamP.q5;
-		for (int i = 0; i < ParamQ.length; i++) {
-			fq += ParamQ[i].a * UdMath.udcos(ParamQ[i].b + ParamQ[i].c * fT);
-		}
+		fq += (fSum != null) ? fSum[2] : ParamQ.sumCos(fT, fDot, 2);
 		double fRadius = Math.pow(10.0, fq);
 		
-		return new Xyz(fRadius * Math.cos(fBeta) * Math.cos(fLambda),
-					   fRadius * Math.cos(fBeta) * Math.sin(fLambda),
-					   fRadius * Math.sin(fBeta));
+		fPos[0] = fRadius * Math.cos(fBeta) * Math.cos(fLambda);
+		fPos[1] = fRadius * Math.cos(fBeta) * Math.sin(fLambda);
+		fPos[2] = fRadius * Math.sin(fBeta);
+
+		if (fVel != null) {
+			double dL1 = fDot[0]
+				+ dsin(ParamP.L6, ParamP.L7, ParamP.L8, ParamP.L9, fT);
+			double dL0 = ParamP.L2 + fDot[1]
+				+ ParamP.L3
+					* UdMath.udcos(ParamP.L4 + ParamP.L5 * fT + 2.0 * L1)
+					* UdMath.deg2rad(ParamP.L5 + 2.0 * dL1);
+			double fDBeta = ParamP.B1
+				* UdMath.udcos(ParamP.B2 + ParamP.B3 * fT + L1)
+				* UdMath.deg2rad(ParamP.B3 + dL1) / Math.cos(fBeta);
+			double fDq = fDot[2]
+				+ dcos(ParamP.q1, ParamP.q2, ParamP.q3, ParamP.q4, fT);
+			getVel(fPos, LN10 * fDq, UdMath.deg2rad(dL0 + dL1),
+				   fDBeta, DT_DJD, fVel);
+		}
 	}
 
 	/**
 	 * Get Position of Jupiter and Saturn
 	 */
-	private static Xyz getPosExp2(int planetNo, double fT) {
-		PlanetExpP0 ParamN[], ParamB[], ParamQ[];
+	private static void getPosExp2(int planetNo, double fT, double fPos[],
+								   double fVel[], double fSum[]) {
+		PlanetExpSeries ParamN, ParamB, ParamQ;
 		PlanetExpP2 ParamP;
 		double fq, fN;
+		double fDq, fDN;	// d/dT
+		double fDot[] = (fVel != null) ? new double[3] : null;
 		switch (planetNo) {
 		case Planet.JUPITER:
-			ParamN = JupiterN;
-			ParamB = JupiterB;
-			ParamQ = JupiterQ;
+			ParamN = JupiterNS;
+			ParamB = JupiterBS;
+			ParamQ = JupiterQS;
 			ParamP = JupiterP;
 			fN  = 341.5208 + 30.34907 * fT;
 			fN += (0.0350 + 0.00028 * fT)
@@ -439,11 +558,19 @@ public class PlanetExp {
 				* UdMath.udsin(162.78 +  0.38 * fT);
 			fq  = (0.000132 + 0.0000011 * fT)
 				* UdMath.udcos(245.93 - 30.349 * fT);
+			if (fVel != null) {
+				fDN  = 30.34907;
+				fDN += dsin(0.0350, 0.00028, 245.94, -30.349, fT);
+				fDN -= dsin(0.0019, 0.00002, 162.78,   0.38, fT);
+				fDq  = dcos(0.000132, 0.0000011, 245.93, -30.349, fT);
+			} else {
+				fDN = fDq = 0.0;
+			}
 			break;
 		case Planet.SATURN:
-			ParamN = SaturnN;
-			ParamB = SaturnB;
-			ParamQ = SaturnQ;
+			ParamN = SaturnNS;
+			ParamB = SaturnBS;
+			ParamQ = SaturnQS;
 			ParamP = SaturnP;
 			fN  = 12.3042 +12.22117 * fT;
 			fN += (0.0934 + 0.00075 * fT)
@@ -455,15 +582,24 @@ public class PlanetExp {
 				* UdMath.udcos( 70.28 + 12.22 * fT) + 0.000183;
 			fq += (0.000021 + 0.0000002 * fT)
 				* UdMath.udcos(265.80 - 11.81  * fT);
+			if (fVel != null) {
+				fDN  = 12.22117;
+				fDN += dsin(0.0934, 0.00075, 250.29,  12.221, fT);
+				fDN += dsin(0.0057, 0.00005, 265.8,  -11.81,  fT);
+				fDN += dsin(0.0049, 0.00004, 162.7,    0.38,  fT);
+				fDN += dsin(0.0019, 0.00002, 262.0,   24.44,  fT);
+				fDq  = dcos(0.000354, 0.0000028,  70.28,  12.22, fT);
+				fDq += dcos(0.000021, 0.0000002, 265.80, -11.81, fT);
+			} else {
+				fDN = fDq = 0.0;
+			}
 			break;
 		default:
 			throw new ArithmeticException();
 		}
 
 		// Lambda
-		for (int i = 0; i < ParamN.length; i++) {
-			fN += ParamN[i].a * UdMath.udsin(ParamN[i].b + ParamN[i].c * fT);
-		}
+		fN += (fSum != null) ? fSum[0] : ParamN.sumSin(fT, fDot, 0);
 		double ff = fN + ParamP.f1 * UdMath.udsin(fN)
 				+ ParamP.f2 * UdMath.udsin(2.0 * fN)
 				+ ParamP.f3 * UdMath.udsin(3.0 * fN)
@@ -477,35 +613,59 @@ public class PlanetExp {
 		double fBeta = Math.asin(ParamP.B1 * UdMath.udsin(ff + ParamP.B2))
 							+ UdMath.deg2rad((ParamP.B3 + ParamP.B4 * fT)
 							* UdMath.udsin(ff + ParamP.B5));
-		for (int i = 0; i < ParamB.length; i++) {
-			fBeta += ParamB[i].a * UdMath.udsin(ParamB[i].b
-												+ ParamB[i].c * fT);
-		}
+		fBeta += (fSum != null) ? fSum[1] : ParamB.sumSin(fT, fDot, 1);
 		
 		// Radius
-		for (int i = 0; i < ParamQ.length; i++) {
-			fq += ParamQ[i].a * UdMath.udcos(ParamQ[i].b + ParamQ[i].c * fT);
-		}
+		fq += (fSum != null) ? fSum[2] : ParamQ.sumCos(fT, fDot, 2);
 		double fr = Math.pow(10.0, fq);
 		double fRadius = fr * ParamP.r1
 			/ ( 1.0 + ParamP.r2 * UdMath.udcos(ff));
 		
-		return new Xyz(fRadius * Math.cos(fBeta) * Math.cos(fLambda),
-					   fRadius * Math.cos(fBeta) * Math.sin(fLambda),
-					   fRadius * Math.sin(fBeta));
+		fPos[0] = fRadius * Math.cos(fBeta) * Math.cos(fLambda);
+		fPos[1] = fRadius * Math.cos(fBeta) * Math.sin(fLambda);
+		fPos[2] = fRadius * Math.sin(fBeta);
+
+		if (fVel != null) {
+			fDN += fDot[0];
+			double fDf = fDN * (1.0 + UdMath.deg2rad(
+								ParamP.f1 * UdMath.udcos(fN)
+								+ 2.0 * ParamP.f2 * UdMath.udcos(2.0 * fN)
+								+ 3.0 * ParamP.f3 * UdMath.udcos(3.0 * fN)
+								+ 4.0 * ParamP.f4 * UdMath.udcos(4.0 * fN)));
+			double fDV = ParamP.V1 * UdMath.udcos(2.0 * ff + ParamP.V2)
+				* UdMath.deg2rad(2.0 * fDf);
+			double fSinB = ParamP.B1 * UdMath.udsin(ff + ParamP.B2);
+			double fDBeta = ParamP.B1 * UdMath.udcos(ff + ParamP.B2)
+				* UdMath.deg2rad(fDf)
+				/ Math.sqrt(1.0 - fSinB * fSinB) + fDot[1];
+			fDBeta += UdMath.deg2rad(ParamP.B4 * UdMath.udsin(ff + ParamP.B5)
+									 + (ParamP.B3 + ParamP.B4 * fT)
+									 * UdMath.udcos(ff + ParamP.B5)
+									 * UdMath.deg2rad(fDf));
+			fDq += fDot[2];
+			double fDLogR = LN10 * fDq
+				+ ParamP.r2 * UdMath.udsin(ff) * UdMath.deg2rad(fDf)
+				/ (1.0 + ParamP.r2 * UdMath.udcos(ff));
+			getVel(fPos, fDLogR, UdMath.deg2rad(fDf + fDV + ParamP.L2),
+				   fDBeta, DT_DJD, fVel);
+		}
 	}
 
 	/**
 	 * Get Position of Mercury, Uranus, Nneptune, Pluto
 	 */
-	private static Xyz getPosExp3(int planetNo, double fT2) {
-		PlanetExpP0 ParamL[], ParamB[], ParamR[];
+	private static void getPosExp3(int planetNo, double fT2, double fPos[],
+								   double fVel[], double fSum[]) {
+		PlanetExpSeries ParamL, ParamB, ParamR;
 		double fLambda, fBeta, fRadius;
+		double fDLambda = 0.0, fDBeta = 0.0, fDRadius = 0.0;	// d/dT2
+		boolean bVel = (fVel != null);
+		double fDot[] = bVel ? new double[3] : null;
 		switch (planetNo) {
 		case Planet.MERCURY:
-			ParamL = MercuryLambda;
-			ParamB = MercuryBeta;
-			ParamR = MercuryR;
+			ParamL = MercuryLambdaS;
+			ParamB = MercuryBetaS;
+			ParamR = MercuryRS;
 			
 			fLambda  = 252.2502 + 149474.0714 * fT2;
 			fLambda += (23.4405 + 0.0023 * fT2)
@@ -525,11 +685,22 @@ public class PlanetExp {
 				* UdMath.udcos(149472.515 * fT2 + 354.795);
 			fRadius += (0.007955 + 0.000002 * fT2)
 				* UdMath.udcos(298945.03 * fT2 + 169.59 );
+			if (bVel) {
+				fDLambda  = 149474.0714;
+				fDLambda += dcos(23.4405, 0.0023,  84.7947, 149472.5153, fT2);
+				fDLambda += dcos( 2.9818, 0.0006, 259.589,  298945.031,  fT2);
+				fDBeta  = dcos(6.7057, 0.0017, 113.919, 149472.886, fT2);
+				fDBeta += dcos(1.4396, 0.0005, 119.12,       0.37,  fT2);
+				fDBeta += dcos(1.3643, 0.0005, 288.71,  298945.40,  fT2);
+				fDRadius  = 0.000002;
+				fDRadius += dcos(0.078341, 0.000008, 354.795, 149472.515, fT2);
+				fDRadius += dcos(0.007955, 0.000002, 169.59,  298945.03,  fT2);
+			}
 			break;
 		case Planet.URANUS:
-			ParamL = UranusLambda;
-			ParamB = UranusBeta;
-			ParamR = UranusR;
+			ParamL = UranusLambdaS;
+			ParamB = UranusBetaS;
+			ParamR = UranusRS;
 			
 			fLambda  = 313.33676 + 428.72880 * fT2;
 			fLambda +=   3.20671 * fT2
@@ -552,11 +723,23 @@ public class PlanetExp {
 				* UdMath.udcos( 440.702 * fT2 +  19.879);
 			fRadius +=  0.166685 * fT2
 				* UdMath.udcos( 702.024 * fT2 + 307.419);
+			if (bVel) {
+				fDLambda  = 428.72880;
+				fDLambda += dcos(0.0, 3.20671, 114.02740,  705.15539, fT2);
+				fDLambda += dcos(0.0, 2.69325, 317.76510,  597.77389, fT2);
+				fDLambda += dcos(0.0, 0.00015, 313.4,     3798.6,     fT2);
+				fDBeta  = dcos(0.0, 1.78488, 188.32394,  507.52281, fT2);
+				fDBeta += dcos(0.0, 0.56518, 354.9571,   892.2869,  fT2);
+				fDBeta += dcos(0.0, 0.00036, 263.0,     1526.5,     fT2);
+				fDRadius  = 0.042617;
+				fDRadius += dcos(0.0, 0.361949,  19.879, 440.702, fT2);
+				fDRadius += dcos(0.0, 0.166685, 307.419, 702.024, fT2);
+			}
 			break;
 		case Planet.NEPTUNE:
-			ParamL = NeptuneLambda;
-			ParamB = NeptuneBeta;
-			ParamR = NeptuneR;
+			ParamL = NeptuneLambdaS;
+			ParamB = NeptuneBetaS;
+			ParamR = NeptuneRS;
 			
 			fLambda  = - 55.13323 + 219.93503 * fT2;
 			fLambda +=   0.04403 * fT2
@@ -569,11 +752,17 @@ public class PlanetExp {
 			fRadius = 30.073033;
 			fRadius +=  0.009784 * fT2
 				* UdMath.udcos( 515.2   * fT2 + 195.7  );
+			if (bVel) {
+				fDLambda  = 219.93503;
+				fDLambda += dcos(0.0, 0.04403, 332.797, 684.128, fT2);
+				fDLambda += dcos(0.0, 0.02928, 342.114, 904.371, fT2);
+				fDRadius  = dcos(0.0, 0.009784, 195.7, 515.2, fT2);
+			}
 			break;
 		case Planet.PLUTO:
-			ParamL = PlutoLambda;
-			ParamB = PlutoBeta;
-			ParamR = PlutoR;
+			ParamL = PlutoLambdaS;
+			ParamB = PlutoBetaS;
+			ParamR = PlutoRS;
 			
 			fLambda  = 241.82574 + 179.09519 * fT2;
 			fBeta    = -2.30285;
@@ -583,50 +772,181 @@ public class PlanetExp {
 				* UdMath.udcos(1425.9   * fT2 +  31.0   );
 			fRadius +=  0.002543 * fT2
 				* UdMath.udcos(2196.1   * fT2 + 199.5   );
+			if (bVel) {
+				fDLambda  = 179.09519;
+				fDRadius  = dcos(0.0, 0.007619,  31.0, 1425.9, fT2);
+				fDRadius += dcos(0.0, 0.002543, 199.5, 2196.1, fT2);
+			}
 			break;
 		default:
 			throw new ArithmeticException();
 		}
 		
-		for (int i = 0; i < ParamL.length; i++) {
-			fLambda += ParamL[i].a * UdMath.udcos(ParamL[i].b
-												  * fT2 + ParamL[i].c);
-		}
+		fLambda += (fSum != null) ? fSum[0] : ParamL.sumCos(fT2, fDot, 0);
 		fLambda = UdMath.deg2rad(UdMath.degmal(fLambda));
 		
-		for (int i = 0; i < ParamB.length; i++) {
-			fBeta += ParamB[i].a * UdMath.udcos(ParamB[i].b
-												* fT2 + ParamB[i].c);
-		}
+		fBeta += (fSum != null) ? fSum[1] : ParamB.sumCos(fT2, fDot, 1);
 		fBeta = UdMath.deg2rad(fBeta);
 		
-		for (int i = 0; i < ParamR.length; i++) {
-			fRadius += ParamR[i].a * UdMath.udcos(ParamR[i].b
-												  * fT2 + ParamR[i].c);
-		}
+		fRadius += (fSum != null) ? fSum[2] : ParamR.sumCos(fT2, fDot, 2);
 		
-		return new Xyz(fRadius * Math.cos(fBeta) * Math.cos(fLambda),
-					   fRadius * Math.cos(fBeta) * Math.sin(fLambda),
-					   fRadius * Math.sin(fBeta));
+		fPos[0] = fRadius * Math.cos(fBeta) * Math.cos(fLambda);
+		fPos[1] = fRadius * Math.cos(fBeta) * Math.sin(fLambda);
+		fPos[2] = fRadius * Math.sin(fBeta);
+
+		if (bVel) {
+			fDLambda += fDot[0];
+			fDBeta   += fDot[1];
+			fDRadius += fDot[2];
+			getVel(fPos, fDRadius / fRadius, UdMath.deg2rad(fDLambda),
+				   UdMath.deg2rad(fDBeta), DT2_DJD, fVel);
+		}
 	}
 	
+	/**
+	 * Get Position by Time Parameters fT and fT2 (see ATime)
+	 * (result is stored in fPos[0..2], returns false if not supported)
+	 */
+	private static boolean getPos(int planetNo, double fT, double fT2,
+								  double fPos[], double fVel[],
+								  double fSum[]) {
+		switch (planetNo) {
+		case Planet.EARTH:
+			getPosExp0(fT, fPos, fVel, fSum);
+			return true;
+		case Planet.VENUS:
+		case Planet.MARS:
+			getPosExp1(planetNo, fT, fPos, fVel, fSum);
+			return true;
+		case Planet.JUPITER:
+		case Planet.SATURN:
+			getPosExp2(planetNo, fT, fPos, fVel, fSum);
+			return true;
+		case Planet.MERCURY:
+		case Planet.URANUS:
+		case Planet.NEPTUNE:
+		case Planet.PLUTO:
+			getPosExp3(planetNo, fT2, fPos, fVel, fSum);
+			return true;
+		}
+		return false;
+	}
+
 	public static Xyz getPos(int planetNo, ATime atime) {
+		double fPos[] = new double[3];
+		if (!getPos(planetNo, atime.getT(), atime.getT2(), fPos, null,
+					null)) {
+			return null;
+		}
+		return new Xyz(fPos[0], fPos[1], fPos[2]);
+	}
+
+	/**
+	 * Get Position by JD
+	 * (result is stored in fPos[0..2], returns false if not supported)
+	 */
+	static boolean getPos(int planetNo, double fJd, double fPos[]) {
+		return getPos(planetNo, ATime.jdToT(fJd), ATime.jdToT2(fJd), fPos,
+					  null, null);
+	}
+
+	/**
+	 * Get Positions for fJd[k] (k < nCount) into fX[k], fY[k], fZ[k]
+	 * (epoch-major: each series is summed over all the dates by
+	 *  PlanetExpSeries.sumSeries, before the positions are made date by
+	 *  date; returns false if not supported)
+	 */
+	static boolean getPos(int planetNo, double fJd[], int nCount,
+						  double fX[], double fY[], double fZ[]) {
+		double fT[]  = new double[nCount];
+		double fT2[] = new double[nCount];
+		for (int k = 0; k < nCount; k++) {
+			fT[k]  = ATime.jdToT(fJd[k]);
+			fT2[k] = ATime.jdToT2(fJd[k]);
+		}
+		// evenly spaced up to the rounding of the JDs (hourly dates are
+		// not exact in double)
+		boolean bEven = true;
+		if (nCount > 2) {
+			double fStep = (fJd[nCount - 1] - fJd[0]) / (nCount - 1);
+			double fTol = 4.0 * Math.ulp(Math.max(Math.abs(fJd[0]),
+												  Math.abs(fJd[nCount - 1])));
+			for (int k = 1; k < nCount - 1 && bEven; k++) {
+				bEven = Math.abs(fJd[k] - (fJd[0] + fStep * k)) <= fTol;
+			}
+		}
+		// in the order of fSum[] of getPosExp0...getPosExp3
+		double fSums[][] = new double[3][nCount];
 		switch (planetNo) {
 		case Planet.EARTH:
-			return getPosExp0(atime.getT());
+			SunLambdaS.sumSeries(false, fT, nCount, bEven, fSums[0]);
+			SunQS.sumSeries(true, fT, nCount, bEven, fSums[1]);
+			break;
 		case Planet.VENUS:
+			VenusL1S.sumSeries(false, fT, nCount, bEven, fSums[0]);
+			VenusL0S.sumSeries(false, fT, nCount, bEven, fSums[1]);
+			VenusQS.sumSeries(true, fT, nCount, bEven, fSums[2]);
+			break;
 		case Planet.MARS:
-			return getPosExp1(planetNo, atime.getT());
+			MarsL1S.sumSeries(false, fT, nCount, bEven, fSums[0]);
+			MarsL0S.sumSeries(false, fT, nCount, bEven, fSums[1]);
+			MarsQS.sumSeries(true, fT, nCount, bEven, fSums[2]);
+			break;
 		case Planet.JUPITER:
+			JupiterNS.sumSeries(false, fT, nCount, bEven, fSums[0]);
+			JupiterBS.sumSeries(false, fT, nCount, bEven, fSums[1]);
+			JupiterQS.sumSeries(true, fT, nCount, bEven, fSums[2]);
+			break;
 		case Planet.SATURN:
-			return getPosExp2(planetNo, atime.getT());
+			SaturnNS.sumSeries(false, fT, nCount, bEven, fSums[0]);
+			SaturnBS.sumSeries(false, fT, nCount, bEven, fSums[1]);
+			SaturnQS.sumSeries(true, fT, nCount, bEven, fSums[2]);
+			break;
 		case Planet.MERCURY:
+			MercuryLambdaS.sumSeries(true, fT2, nCount, bEven, fSums[0]);
+			MercuryBetaS.sumSeries(true, fT2, nCount, bEven, fSums[1]);
+			MercuryRS.sumSeries(true, fT2, nCount, bEven, fSums[2]);
+			break;
 		case Planet.URANUS:
+			UranusLambdaS.sumSeries(true, fT2, nCount, bEven, fSums[0]);
+			UranusBetaS.sumSeries(true, fT2, nCount, bEven, fSums[1]);
+			UranusRS.sumSeries(true, fT2, nCount, bEven, fSums[2]);
+			break;
 		case Planet.NEPTUNE:
+			NeptuneLambdaS.sumSeries(true, fT2, nCount, bEven, fSums[0]);
+			NeptuneBetaS.sumSeries(true, fT2, nCount, bEven, fSums[1]);
+			NeptuneRS.sumSeries(true, fT2, nCount, bEven, fSums[2]);
+			break;
 		case Planet.PLUTO:
-			return getPosExp3(planetNo, atime.getT2());
+			PlutoLambdaS.sumSeries(true, fT2, nCount, bEven, fSums[0]);
+			PlutoBetaS.sumSeries(true, fT2, nCount, bEven, fSums[1]);
+			PlutoRS.sumSeries(true, fT2, nCount, bEven, fSums[2]);
+			break;
+		default:
+			return false;
+		}
+		double fSum[] = new double[3];
+		double fPos[] = new double[3];
+		for (int k = 0; k < nCount; k++) {
+			fSum[0] = fSums[0][k];
+			fSum[1] = fSums[1][k];
+			fSum[2] = fSums[2][k];
+			getPos(planetNo, fT[k], fT2[k], fPos, null, fSum);
+			fX[k] = fPos[0];
+			fY[k] = fPos[1];
+			fZ[k] = fPos[2];
 		}
-		return null;
+		return true;
+	}
+
+	/**
+	 * Get Position (AU) and Velocity (AU/day) by JD
+	 * (derivatives of the series, returns false if not supported)
+	 */
+	static boolean getState(int planetNo, double fJd, double fPos[],
+							double fVel[]) {
+		return getPos(planetNo, ATime.jdToT(fJd), ATime.jdToT2(fJd), fPos,
+					  fVel, null);
 	}
 }
 
@@ -682,3 +1002,155 @@ class PlanetExpP2 {		/* Jupiter and Saturn */
 		this.r1 = r1;	this.r2 = r2;
 	}
 }
+
+/**
+ * Series of a * sin(fPhase + fRate * T) (or cos) in flat arrays,
+ * coefficients in radian
+ */
+class PlanetExpSeries {
+	public double a[];
+	public double fPhase[];
+	public double fRate[];
+
+	public PlanetExpSeries(int nTerms) {
+		this.a      = new double[nTerms];
+		this.fPhase = new double[nTerms];
+		this.fRate  = new double[nTerms];
+	}
+
+	/**
+	 * Set Term (phase and rate in degree)
+	 */
+	public void set(int i, double a, double fPhaseDeg, double fRateDeg) {
+		this.a[i]      = a;
+		this.fPhase[i] = fPhaseDeg * Math.PI / 180.0;
+		this.fRate[i]  = fRateDeg  * Math.PI / 180.0;
+	}
+
+	/**
+	 * From Table of a * sin(b + c * T)
+	 */
+	public static PlanetExpSeries phaseRate(PlanetExpP0 param[]) {
+		PlanetExpSeries series = new PlanetExpSeries(param.length);
+		for (int i = 0; i < param.length; i++) {
+			series.set(i, param[i].a, param[i].b, param[i].c);
+		}
+		return series;
+	}
+
+	/**
+	 * From Table of a * sin(b * T + c)
+	 */
+	public static PlanetExpSeries ratePhase(PlanetExpP0 param[]) {
+		PlanetExpSeries series = new PlanetExpSeries(param.length);
+		for (int i = 0; i < param.length; i++) {
+			series.set(i, param[i].a, param[i].c, param[i].b);
+		}
+		return series;
+	}
+
+	/**
+	 * Sum of a * sin(fPhase + fRate * T)
+	 */
+	public double sumSin(double fT) {
+		double fSum = 0.0;
+		for (int i = 0; i < a.length; i++) {
+			fSum += a[i] * Math.sin(fPhase[i] + fRate[i] * fT);
+		}
+		return fSum;
+	}
+
+	/**
+	 * Sum of a * sin(fPhase + fRate * T), and d/dT is added to fDot[i]
+	 * if fDot is not null
+	 */
+	public double sumSin(double fT, double fDot[], int i) {
+		if (fDot == null) {
+			return sumSin(fT);
+		}
+		double fSum = 0.0, fSumDot = 0.0;
+		for (int j = 0; j < a.length; j++) {
+			double fArg = fPhase[j] + fRate[j] * fT;
+			fSum    += a[j] * Math.sin(fArg);
+			fSumDot += a[j] * fRate[j] * Math.cos(fArg);
+		}
+		fDot[i] += fSumDot;
+		return fSum;
+	}
+
+	/**
+	 * Sum of a * cos(fPhase + fRate * T)
+	 */
+	public double sumCos(double fT) {
+		double fSum = 0.0;
+		for (int i = 0; i < a.length; i++) {
+			fSum += a[i] * Math.cos(fPhase[i] + fRate[i] * fT);
+		}
+		return fSum;
+	}
+
+	/**
+	 * Sum of a * cos(fPhase + fRate * T), and d/dT is added to fDot[i]
+	 * if fDot is not null
+	 */
+	public double sumCos(double fT, double fDot[], int i) {
+		if (fDot == null) {
+			return sumCos(fT);
+		}
+		double fSum = 0.0, fSumDot = 0.0;
+		for (int j = 0; j < a.length; j++) {
+			double fArg = fPhase[j] + fRate[j] * fT;
+			fSum    += a[j] * Math.cos(fArg);
+			fSumDot -= a[j] * fRate[j] * Math.sin(fArg);
+		}
+		fDot[i] += fSumDot;
+		return fSum;
+	}
+
+	/**
+	 * Dates between Direct Sines in sumSeries
+	 */
+	static final int nResync = 64;
+
+	/**
+	 * Sums of a * sin(fPhase + fRate * T) (bCos: cos) at T = fT[k] into
+	 * fSum[k] for k < nCount, term by term over all the dates
+	 *
+	 * If the dates are evenly spaced (bEven), the sine and cosine of a
+	 * term are advanced from one date to the next by the angle addition
+	 * formulas, and computed directly every nResync dates so that the
+	 * rounding errors do not accumulate.
+	 */
+	public void sumSeries(boolean bCos, double fT[], int nCount,
+						  boolean bEven, double fSum[]) {
+		java.util.Arrays.fill(fSum, 0, nCount, 0.0);
+		if (nCount == 0) {
+			return;
+		}
+		double fStep = (nCount > 1)
+			? (fT[nCount - 1] - fT[0]) / (nCount - 1) : 0.0;
+		for (int j = 0; j < a.length; j++) {
+			double fA = a[j], fP = fPhase[j], fR = fRate[j];
+			if (!bEven) {
+				for (int k = 0; k < nCount; k++) {
+					double fArg = fP + fR * fT[k];
+					fSum[k] += fA * (bCos ? Math.cos(fArg) : Math.sin(fArg));
+				}
+				continue;
+			}
+			double fSinD = Math.sin(fR * fStep);
+			double fCosD = Math.cos(fR * fStep);
+			for (int k0 = 0; k0 < nCount; k0 += nResync) {
+				int nEnd = Math.min(k0 + nResync, nCount);
+				double fArg = fP + fR * fT[k0];
+				double fSin = Math.sin(fArg), fCos = Math.cos(fArg);
+				for (int k = k0; k < nEnd; k++) {
+					fSum[k] += fA * (bCos ? fCos : fSin);
+					double fSinNext = fSin * fCosD + fCos * fSinD;
+					fCos = fCos * fCosD - fSin * fSinD;
+					fSin = fSinNext;
+				}
+			}
+		}
+	}
+}
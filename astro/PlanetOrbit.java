@@ -5,11 +5,31 @@ package astro;
 import astro.ATime;
 import astro.Xyz;
 
-public class PlanetOrbit {
+public class PlanetOrbit implements OrbitCurve {
 	private int		planetNo;
 	private double	jd;
 	private int		nDivision;
-	private  Xyz	orbit[];
+	private double	orbitX[];
+	private double	orbitY[];
+	private double	orbitZ[];
+
+	/**
+	 * Orbit as a Curve (see getPoint)
+	 */
+	private double	axis, e;
+	private Matrix	mtxVec;
+
+	/**
+	 * Precession J2000.0 -> Equinox of Orbit Points (JD 2451512.5)
+	 */
+	private static final Matrix mtxPrecOrbit
+		= Matrix.PrecMatrix(Astro.JD2000, 2451512.5);
+	
+	private void setAt(int nIndex, double x, double y) {
+		orbitX[nIndex] = x;
+		orbitY[nIndex] = y;
+		orbitZ[nIndex] = 0.0;
+	}
 	
 	private void doGetPlanetOrbit(PlanetElm planetElm) {
 		double ae2 = -2.0 * planetElm.axis * planetElm.e;
@@ -22,10 +42,10 @@ public class PlanetOrbit {
 		for (int i = 0; i <= (nDivision/4); i++, E += (360.0 / nDivision)) {
 			double rcosv = planetElm.axis * (UdMath.udcos(E) - planetElm.e);
 			double rsinv = planetElm.axis * t * UdMath.udsin(E);
-			orbit[xp1++] = new Xyz(rcosv,        rsinv, 0.0);
-			orbit[xp2--] = new Xyz(ae2 - rcosv,  rsinv, 0.0);
-			orbit[xp3++] = new Xyz(ae2 - rcosv, -rsinv, 0.0);
-			orbit[xp4--] = new Xyz(rcosv,       -rsinv, 0.0);
+			setAt(xp1++, rcosv,        rsinv);
+			setAt(xp2--, ae2 - rcosv,  rsinv);
+			setAt(xp3++, ae2 - rcosv, -rsinv);
+			setAt(xp4--, rcosv,       -rsinv);
 		}
 	}
 	
@@ -34,16 +54,42 @@ public class PlanetOrbit {
 		this.jd = atime.getJd();
 		this.nDivision = nDivision;
 		PlanetElm planetElm = new PlanetElm(planetNo, atime);
-		orbit = new Xyz[nDivision + 1];
+		orbitX = new double[nDivision + 1];
+		orbitY = new double[nDivision + 1];
+		orbitZ = new double[nDivision + 1];
 		doGetPlanetOrbit(planetElm);
 		Matrix vec = Matrix.VectorConstant(planetElm.peri * Math.PI/180.0,
 										   planetElm.node * Math.PI/180.0,
 										   planetElm.incl * Math.PI/180.0,
 										   atime);
-		Matrix prec = Matrix.PrecMatrix(atime.getJd(), 2451512.5);
-		for (int i = 0; i <= nDivision; i++) {
-			orbit[i] = orbit[i].Rotate(vec).Rotate(prec);
-		}
+		Matrix prec = mtxPrecOrbit.Mul(
+			PrecessionCache.getPrecessionToJ2000(atime.getJd()));
+		this.mtxVec = prec.Mul(vec);
+		this.axis = planetElm.axis;
+		this.e = planetElm.e;
+		rotateInto(mtxVec, orbitX, orbitY, orbitZ);
+	}
+
+	/**
+	 * Range of the Parameter of getPoint (eccentric anomaly, radian)
+	 */
+	public double getParamMin() {
+		return 0.0;
+	}
+	public double getParamMax() {
+		return 2.0 * Math.PI;
+	}
+
+	/**
+	 * Get Point at the Parameter u (result is stored in dst)
+	 */
+	public Xyz getPoint(double u, Xyz dst) {
+		double rcosv = axis * (Math.cos(u) - e);
+		double rsinv = axis * Math.sqrt(1.0 - e * e) * Math.sin(u);
+		Matrix mtx = this.mtxVec;
+		return dst.set(mtx.fA11 * rcosv + mtx.fA12 * rsinv,
+					   mtx.fA21 * rcosv + mtx.fA22 * rsinv,
+					   mtx.fA31 * rcosv + mtx.fA32 * rsinv);
 	}
 	
 	/**
@@ -64,6 +110,41 @@ public class PlanetOrbit {
 	 * Get Orbit Point
 	 */
 	public Xyz getAt(int nIndex) {
-		return orbit[nIndex];
+		return new Xyz(orbitX[nIndex], orbitY[nIndex], orbitZ[nIndex]);
+	}
+	
+	/**
+	 * Get Orbit Point (result is stored in dst)
+	 */
+	public Xyz getAt(int nIndex, Xyz dst) {
+		return dst.set(orbitX[nIndex], orbitY[nIndex], orbitZ[nIndex]);
+	}
+	
+	/**
+	 * Get Orbit Point Arrays (shared, must not be modified)
+	 */
+	public double[] getArrayX() {
+		return orbitX;
+	}
+	public double[] getArrayY() {
+		return orbitY;
+	}
+	public double[] getArrayZ() {
+		return orbitZ;
+	}
+	
+	/**
+	 * Rotate All Orbit Points with Matrix
+	 * (results are stored in x[], y[], z[])
+	 */
+	public void rotateInto(Matrix mtx, double x[], double y[], double z[]) {
+		for (int i = 0; i <= nDivision; i++) {
+			double x0 = orbitX[i];
+			double y0 = orbitY[i];
+			double z0 = orbitZ[i];
+			x[i] = mtx.fA11 * x0 + mtx.fA12 * y0 + mtx.fA13 * z0;
+			y[i] = mtx.fA21 * x0 + mtx.fA22 * y0 + mtx.fA23 * z0;
+			z[i] = mtx.fA31 * x0 + mtx.fA32 * y0 + mtx.fA33 * z0;
+		}
 	}
 }
@@ -0,0 +1,149 @@
+/**
+ * Planet Orbit Cache
+ *
+ * PlanetOrbit of all planets (Mercury...Pluto) for epoch buckets of
+ * five years, the orbits of a bucket made for its center.  The orbits
+ * are made on a background thread, for the bucket asked for and the
+ * buckets ahead of it in the direction the date moves, and kept in a
+ * cache of bounded size with LRU eviction.  getOrbits never waits for
+ * the orbits to be made.
+ */
+package astro;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+
+public class PlanetOrbitCache {
+
+	public static final double BUCKET           = 365.2422 * 5;	// day
+	public static final int    DEFAULT_CAPACITY = 6;			// buckets
+
+	/**
+	 * Buckets Made Ahead
+	 */
+	private static final int nAhead = 2;
+
+	private int nDivision;
+	private LinkedHashMap<Long, Future<PlanetOrbit[]>> cache;
+	private ThreadPoolExecutor executor;
+
+	/**
+	 * Bucket of the Last Call, and the Direction (+1 or -1) it Moves
+	 */
+	private long nBucketLast = Long.MIN_VALUE;
+	private int  nDirection  = 1;
+
+	/**
+	 * Statistics
+	 */
+	private long nHit  = 0;
+	private long nMiss = 0;		// not made yet
+
+	/**
+	 * Constructor (nDivision: division of PlanetOrbit)
+	 */
+	public PlanetOrbitCache(int nDivision, final int nCapacity) {
+		if (nDivision < 4 || nCapacity < nAhead + 1) {
+			throw new IllegalArgumentException();
+		}
+		this.nDivision = nDivision;
+		this.cache = new LinkedHashMap<Long, Future<PlanetOrbit[]>>(16, 0.75f,
+																	  true) {
+			protected boolean removeEldestEntry(Map.Entry<Long,
+												Future<PlanetOrbit[]>>
+												eldest) {
+				if (size() > nCapacity) {
+					// not to be made if not made yet
+					eldest.getValue().cancel(false);
+					return true;
+				}
+				return false;
+			}
+		};
+		// one low priority thread, which ends when idle
+		executor = new ThreadPoolExecutor(1, 1, 5, TimeUnit.SECONDS,
+										  new LinkedBlockingQueue<Runnable>(),
+										  r -> {
+			Thread thread = new Thread(r, "PlanetOrbitCache");
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Constructor with Default Capacity
+	 */
+	public PlanetOrbitCache(int nDivision) {
+		this(nDivision, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Get Orbits of the Bucket including fJd
+	 * (index 0: Mercury ... 8: Pluto; null if not made yet)
+	 */
+	public synchronized PlanetOrbit[] getOrbits(double fJd) {
+		long nBucket = (long)Math.floor((fJd - Astro.JD2000) / BUCKET);
+		if (nBucketLast != Long.MIN_VALUE && nBucket != nBucketLast) {
+			nDirection = (nBucket > nBucketLast) ? 1 : -1;
+		}
+		nBucketLast = nBucket;
+		Future<PlanetOrbit[]> future = request(nBucket);
+		for (int i = 1; i <= nAhead; i++) {
+			request(nBucket + i * nDirection);
+		}
+		if (!future.isDone()) {
+			nMiss++;
+			return null;
+		}
+		try {
+			PlanetOrbit orbits[] = future.get();
+			nHit++;
+			return orbits;
+		} catch (InterruptedException e) {
+			return null;
+		} catch (ExecutionException e) {
+			return null;
+		} catch (CancellationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Request Orbits of Bucket to the Background Thread
+	 * (the last requested is the most recently used)
+	 */
+	private Future<PlanetOrbit[]> request(long nBucket) {
+		Long key = Long.valueOf(nBucket);
+		Future<PlanetOrbit[]> future = cache.get(key);
+		if (future == null) {
+			final ATime atime
+				= new ATime(Astro.JD2000 + (nBucket + 0.5) * BUCKET, 0.0);
+			future = executor.submit(() -> make(atime));
+			cache.put(key, future);
+		}
+		return future;
+	}
+
+	/**
+	 * Make Orbits of All Planets (background thread)
+	 */
+	private PlanetOrbit[] make(ATime atime) {
+		PlanetOrbit orbits[] = new PlanetOrbit[Planet.PLUTO - Planet.MERCURY
+											   + 1];
+		for (int i = Planet.MERCURY; i <= Planet.PLUTO; i++) {
+			orbits[i - Planet.MERCURY] = new PlanetOrbit(i, atime, nDivision);
+		}
+		return orbits;
+	}
+
+	/**
+	 * Statistics Report
+	 */
+	public synchronized String toString() {
+		return "PlanetOrbitCache: " + cache.size() + " buckets, "
+			+ nHit + " hits, " + nMiss + " not made yet";
+	}
+}
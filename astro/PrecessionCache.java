@@ -0,0 +1,112 @@
+/**
+ * Precession Matrix Cache
+ *
+ * Shared, thread-safe memo of precession matrices.
+ *
+ *   getPrecession(fJd)         precession J2000.0 -> date
+ *   getPrecessionToJ2000(fJd)  precession date -> J2000.0
+ *   getToEcliptic(fJd)         equatorial (J2000.0) -> ecliptic (date)
+ *
+ * are computed at nodes every NODE_INTERVAL days from J2000.0, and
+ * interpolated linearly between the two nodes around the date (error
+ * about 1e-8 radian).  getEquinoxPrecession(fEpoch), for the equinox of
+ * orbital elements, is exact (memoized by Matrix.PrecMatrix).
+ */
+package astro;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+public class PrecessionCache {
+
+	public static final double NODE_INTERVAL = 365.25;	// day
+
+	/**
+	 * Nodes Kept at most (cleared if more)
+	 */
+	private static final int nMaxNodes = 4096;
+
+	/**
+	 * Matrices at Node n (JD2000 + n * NODE_INTERVAL),
+	 * [0]: precession, [1]: to ecliptic
+	 */
+	private static final ConcurrentHashMap<Long, Matrix[]> nodes
+		= new ConcurrentHashMap<Long, Matrix[]>();
+
+	/**
+	 * Get Precession Matrix J2000.0 -> Date (interpolated)
+	 */
+	public static Matrix getPrecession(double fJd) {
+		return interpolate(fJd, 0);
+	}
+
+	/**
+	 * Get Precession Matrix Date -> J2000.0 (interpolated, transposed)
+	 */
+	public static Matrix getPrecessionToJ2000(double fJd) {
+		Matrix mtx = interpolate(fJd, 0);
+		return new Matrix(mtx.fA11, mtx.fA21, mtx.fA31,
+						  mtx.fA12, mtx.fA22, mtx.fA32,
+						  mtx.fA13, mtx.fA23, mtx.fA33);
+	}
+
+	/**
+	 * Get Matrix Equatorial(J2000.0) -> Ecliptic(Date) (interpolated)
+	 */
+	public static Matrix getToEcliptic(double fJd) {
+		return interpolate(fJd, 1);
+	}
+
+	/**
+	 * Get Precession Matrix Equinox of Elements -> J2000.0 (exact)
+	 */
+	public static Matrix getEquinoxPrecession(double fEpoch) {
+		return Matrix.PrecMatrix(fEpoch, Astro.JD2000);
+	}
+
+	/**
+	 * Interpolate Matrix nKind between the Nodes around fJd
+	 */
+	private static Matrix interpolate(double fJd, int nKind) {
+		double fN = (fJd - Astro.JD2000) / NODE_INTERVAL;
+		long n = (long)Math.floor(fN);
+		double w = fN - n;
+		Matrix m0 = getNode(n)[nKind];
+		Matrix m1 = getNode(n + 1)[nKind];
+		double v = 1.0 - w;
+		return new Matrix(v * m0.fA11 + w * m1.fA11,
+						  v * m0.fA12 + w * m1.fA12,
+						  v * m0.fA13 + w * m1.fA13,
+						  v * m0.fA21 + w * m1.fA21,
+						  v * m0.fA22 + w * m1.fA22,
+						  v * m0.fA23 + w * m1.fA23,
+						  v * m0.fA31 + w * m1.fA31,
+						  v * m0.fA32 + w * m1.fA32,
+						  v * m0.fA33 + w * m1.fA33);
+	}
+
+	/**
+	 * Get Matrices at Node n (computed if not kept)
+	 */
+	private static Matrix[] getNode(long n) {
+		Long key = Long.valueOf(n);
+		Matrix mtx[] = nodes.get(key);
+		if (mtx == null) {
+			double fJd = Astro.JD2000 + n * NODE_INTERVAL;
+			Matrix mtxPrec = Matrix.PrecMatrix(Astro.JD2000, fJd);
+			Matrix mtxEqt2Ecl = Matrix.RotateX(ATime.getEp(fJd));
+			mtx = new Matrix[] { mtxPrec, mtxEqt2Ecl.Mul(mtxPrec) };
+			if (nodes.size() >= nMaxNodes) {
+				nodes.clear();
+			}
+			nodes.put(key, mtx);
+		}
+		return mtx;
+	}
+
+	/**
+	 * Get Number of Nodes Kept
+	 */
+	public static int getNodeCount() {
+		return nodes.size();
+	}
+}
@@ -25,47 +25,93 @@ public class Xyz {
 		this.fZ = fZ;
 	}
 
+	/**
+	 * Set Values
+	 */
+	public Xyz set(double fX, double fY, double fZ) {
+		this.fX = fX;
+		this.fY = fY;
+		this.fZ = fZ;
+		return this;
+	}
+
 	/**
 	 * Rotation of Vector with Matrix
 	 */
 	public Xyz Rotate(Matrix mtx) {
+		return rotateInto(mtx, new Xyz());
+	}
+
+	/**
+	 * Rotation of Vector with Matrix (result is stored in dst)
+	 */
+	public Xyz rotateInto(Matrix mtx, Xyz dst) {
 		double fX = mtx.fA11 * this.fX + mtx.fA12 * this.fY
 			+ mtx.fA13 * this.fZ;
 		double fY = mtx.fA21 * this.fX + mtx.fA22 * this.fY
 			+ mtx.fA23 * this.fZ;
 		double fZ = mtx.fA31 * this.fX + mtx.fA32 * this.fY
 			+ mtx.fA33 * this.fZ;
-		return new Xyz(fX, fY, fZ);
+		return dst.set(fX, fY, fZ);
+	}
+
+	/**
+	 * Rotation of Vector with Matrix mtx1, then mtx2
+	 * (same as Rotate(mtx1).Rotate(mtx2), result is stored in dst)
+	 */
+	public Xyz rotateInto(Matrix mtx1, Matrix mtx2, Xyz dst) {
+		double fX1 = mtx1.fA11 * this.fX + mtx1.fA12 * this.fY
+			+ mtx1.fA13 * this.fZ;
+		double fY1 = mtx1.fA21 * this.fX + mtx1.fA22 * this.fY
+			+ mtx1.fA23 * this.fZ;
+		double fZ1 = mtx1.fA31 * this.fX + mtx1.fA32 * this.fY
+			+ mtx1.fA33 * this.fZ;
+		double fX = mtx2.fA11 * fX1 + mtx2.fA12 * fY1 + mtx2.fA13 * fZ1;
+		double fY = mtx2.fA21 * fX1 + mtx2.fA22 * fY1 + mtx2.fA23 * fZ1;
+		double fZ = mtx2.fA31 * fX1 + mtx2.fA32 * fY1 + mtx2.fA33 * fZ1;
+		return dst.set(fX, fY, fZ);
 	}
 
 	/**
 	 * V := V1 + V2
 	 */
 	public Xyz Add(Xyz xyz) {
-		double fX = this.fX + xyz.fX;
-		double fY = this.fY + xyz.fY;
-		double fZ = this.fZ + xyz.fZ;
-		return new Xyz(fX, fY, fZ);
+		return addInto(xyz, new Xyz());
+	}
+
+	/**
+	 * V := V1 + V2 (result is stored in dst)
+	 */
+	public Xyz addInto(Xyz xyz, Xyz dst) {
+		return dst.set(this.fX + xyz.fX, this.fY + xyz.fY, this.fZ + xyz.fZ);
 	}
 
 	/**
 	 * V := V1 - V2
 	 */
 	public Xyz Sub(Xyz xyz) {
-		double fX = this.fX - xyz.fX;
-		double fY = this.fY - xyz.fY;
-		double fZ = this.fZ - xyz.fZ;
-		return new Xyz(fX, fY, fZ);
+		return subInto(xyz, new Xyz());
+	}
+
+	/**
+	 * V := V1 - V2 (result is stored in dst)
+	 */
+	public Xyz subInto(Xyz xyz, Xyz dst) {
+		return dst.set(this.fX - xyz.fX, this.fY - xyz.fY, this.fZ - xyz.fZ);
 	}
 
 	/**
 	 * V := x * V;
 	 */
 	public Xyz Mul(double fA) {
-		double fX = this.fX * fA;
-		double fY = this.fY * fA;
-		double fZ = this.fZ * fA;
-		return new Xyz(fX, fY, fZ);
+		return mulInto(fA, new Xyz());
+	}
+
+	/**
+	 * V := x * V; (result is stored in dst)
+	 */
+	public Xyz mulInto(double fA, Xyz dst) {
+		return dst.set(this.fX * fA, this.fY * fA, this.fZ * fA);
 	}
 
 	/**
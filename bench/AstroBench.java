@@ -0,0 +1,309 @@
+/**
+ * JMH Benchmarks of the astro Package
+ *
+ * Build and run with "make bench" (see Makefile and README.md).
+ */
+package bench;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import astro.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AstroBench {
+
+	/**
+	 * Comet.GetPos in Each Orbit Regime
+	 */
+	@State(Scope.Thread)
+	public static class CometState {
+		// ellip    : e < 0.98
+		// para     : e = 1.0
+		// nearpara : 0.98 <= e < 1.0 and e > 1.0 (CometStatusNearPara)
+		@Param({"ellip", "para", "nearpara-ellip", "nearpara-hyper"})
+		public String strOrbit;
+
+		@Param({"conic", "universal"})
+		public String strPropagator;
+
+		public Comet comet;
+		public double fJd;
+		public double fPos[] = new double[3];
+		public double fVel[] = new double[3];
+
+		@Setup
+		public void setup() {
+			comet = makeComet(strOrbit);
+			if (strPropagator.equals("universal")) {
+				comet.setPropagator(Comet.UNIVERSAL);
+			}
+			fJd = comet.getT() + 200.0;
+		}
+	}
+
+	/**
+	 * Planet.getPos for Each Planet, PlanetExp (1950-2060) or PlanetElm
+	 */
+	@State(Scope.Thread)
+	public static class PlanetState {
+		@Param({"1", "2", "3", "4", "5", "6", "7", "8", "9"})
+		public int planetNo;
+
+		@Param({"exp", "elm"})
+		public String strBranch;
+
+		public ATime atime;
+		public double fPos[] = new double[3];
+		public double fVel[] = new double[3];
+
+		@Setup
+		public void setup() {
+			if (strBranch.equals("exp")) {
+				atime = new ATime(2000, 1, 1.5, 0.0);
+			} else {
+				atime = new ATime(1800, 1, 1.5, 0.0);
+			}
+		}
+	}
+
+	/**
+	 * Planet Positions for Hourly Dates (as by the playback of OrbitPlayer)
+	 */
+	@State(Scope.Thread)
+	public static class PlanetSeriesState {
+		@Param({"1", "2", "3", "4", "5", "6", "7", "8", "9"})
+		public int planetNo;
+
+		@Param({"exp", "elm"})
+		public String strBranch;
+
+		public double fJd[] = new double[1024];
+		public double fX[]  = new double[1024];
+		public double fY[]  = new double[1024];
+		public double fZ[]  = new double[1024];
+		public double fPos[] = new double[3];
+
+		@Setup
+		public void setup() {
+			ATime atime;
+			if (strBranch.equals("exp")) {
+				atime = new ATime(2000, 1, 1.5, 0.0);
+			} else {
+				atime = new ATime(1800, 1, 1.5, 0.0);
+			}
+			for (int i = 0; i < fJd.length; i++) {
+				fJd[i] = atime.getJd() + i / 24.0;
+			}
+		}
+	}
+
+	/**
+	 * CometOrbit Construction (same division as OrbitCanvas)
+	 */
+	@State(Scope.Thread)
+	public static class CometOrbitState {
+		@Param({"ellip", "para", "nearpara-hyper"})
+		public String strOrbit;
+
+		public Comet comet;
+
+		@Setup
+		public void setup() {
+			comet = makeComet(strOrbit);
+		}
+	}
+
+	/**
+	 * ATime.changeDate by a Time Step
+	 */
+	@State(Scope.Thread)
+	public static class ChangeDateState {
+		@Param({"hour", "day", "month", "year"})
+		public String strStep;
+
+		public ATime    atime;
+		public TimeSpan span;
+
+		@Setup
+		public void setup() {
+			atime = new ATime(1986, 2, 9.0, 0.0);
+			if (strStep.equals("hour")) {
+				span = new TimeSpan(0, 0, 0, 1, 0, 0.0);
+			} else if (strStep.equals("day")) {
+				span = new TimeSpan(0, 0, 1, 0, 0, 0.0);
+			} else if (strStep.equals("month")) {
+				span = new TimeSpan(0, 1, 0, 0, 0, 0.0);
+			} else {
+				span = new TimeSpan(1, 0, 0, 0, 0, 0.0);
+			}
+		}
+	}
+
+	/**
+	 * Kepler's Equation by Each Method (random M and e < 0.98)
+	 */
+	@State(Scope.Thread)
+	public static class KeplerState {
+		@Param({"classic", "newton", "halley", "markley", "table"})
+		public String strMethod;
+
+		public KeplerSolver solver;
+		public double fM[] = new double[1024];
+		public double fE[] = new double[1024];
+		public int i = 0;
+
+		@Setup
+		public void setup() {
+			String strName[] = {"classic", "newton", "halley", "markley",
+								"table"};
+			solver = new KeplerSolver(Arrays.asList(strName)
+									  .indexOf(strMethod));
+			Random random = new Random(1);
+			for (int j = 0; j < fM.length; j++) {
+				fM[j] = (random.nextDouble() - 0.5) * 4.0 * Math.PI;
+				fE[j] = random.nextDouble() * 0.98;
+			}
+		}
+	}
+
+	/**
+	 * Epochs not Used Before (a new fraction of a day at each call)
+	 */
+	@State(Scope.Thread)
+	public static class PrecState {
+		public long n = 0;
+
+		public double next(double fJd) {
+			n++;
+			return fJd + (n & 0xfffff) * 1.0e-6;
+		}
+	}
+
+	/**
+	 * Test Objects for Each Orbit Regime
+	 */
+	static Comet makeComet(String strOrbit) {
+		if (strOrbit.equals("ellip")) {
+			// 1P/Halley
+			return new Comet("1P/Halley", 2446470.2695, 0.967267, 0.587096,
+							 111.8466, 58.1440, 162.2393, 1950.0);
+		} else if (strOrbit.equals("para")) {
+			return new Comet("Parabolic", 2451545.0, 1.0, 0.5,
+							 30.0, 60.0, 45.0, 2000.0);
+		} else if (strOrbit.equals("nearpara-ellip")) {
+			// C/1995 O1 (Hale-Bopp)
+			return new Comet("C/1995 O1", 2450539.6375, 0.995068, 0.914141,
+							 130.5895, 282.4707, 89.4296, 2000.0);
+		} else if (strOrbit.equals("nearpara-hyper")) {
+			return new Comet("Hyperbolic", 2451545.0, 1.05, 1.2,
+							 30.0, 60.0, 45.0, 2000.0);
+		}
+		throw new IllegalArgumentException("Unknown orbit " + strOrbit);
+	}
+
+	@Benchmark
+	public Xyz cometGetPos(CometState state) {
+		return state.comet.GetPos(state.fJd);
+	}
+
+	@Benchmark
+	public Xyz planetGetPos(PlanetState state) {
+		return Planet.getPos(state.planetNo, state.atime);
+	}
+
+	@Benchmark
+	public double[] cometGetState(CometState state) {
+		state.comet.getState(state.fJd, state.fPos, state.fVel);
+		return state.fVel;
+	}
+
+	@Benchmark
+	public double[] planetGetState(PlanetState state) {
+		Planet.getState(state.planetNo, state.atime.getJd(), state.fPos,
+						state.fVel);
+		return state.fVel;
+	}
+
+	/**
+	 * Planet.getState Date by Date (compare with planetGetPosSeries)
+	 */
+	@Benchmark
+	public double[] planetGetPosLoop(PlanetSeriesState state) {
+		double fJd[] = state.fJd;
+		for (int i = 0; i < fJd.length; i++) {
+			Planet.getState(state.planetNo, fJd[i], state.fPos, null);
+			state.fX[i] = state.fPos[0];
+			state.fY[i] = state.fPos[1];
+			state.fZ[i] = state.fPos[2];
+		}
+		return state.fX;
+	}
+
+	@Benchmark
+	public double[] planetGetPosSeries(PlanetSeriesState state) {
+		Planet.getPos(state.planetNo, state.fJd, state.fX, state.fY,
+					  state.fZ);
+		return state.fX;
+	}
+
+	@Benchmark
+	public Xyz planetCacheGetPos(PlanetState state) {
+		return PlanetCache.getDefault().getPos(state.planetNo, state.atime);
+	}
+
+	@Benchmark
+	public double keplerSolve(KeplerState state) {
+		int i = state.i = (state.i + 1) & 1023;
+		return state.solver.solve(state.fM[i], state.fE[i]);
+	}
+
+	/**
+	 * Matrix.PrecMatrix for a new epoch at each call, so that the matrix
+	 * is computed (not found in the memo of epoch pairs)
+	 */
+	@Benchmark
+	public Matrix precMatrix(PrecState state) {
+		return Matrix.PrecMatrix(Astro.JD2000, state.next(2446470.5));
+	}
+
+	@Benchmark
+	public Matrix precMatrixNewcomb(PrecState state) {
+		// beyond fPrecLimit (30 centuries) from J2000
+		return Matrix.PrecMatrix(Astro.JD2000, state.next(1000000.5));
+	}
+
+	/**
+	 * Matrix.PrecMatrix for the same epochs (found in the memo)
+	 */
+	@Benchmark
+	public Matrix precMatrixMemo() {
+		return Matrix.PrecMatrix(Astro.JD2000, 2446470.5);
+	}
+
+	@Benchmark
+	public CometOrbit cometOrbit(CometOrbitState state) {
+		return new CometOrbit(state.comet, 120);
+	}
+
+	@Benchmark
+	public PlanetOrbit planetOrbitJupiter() {
+		return new PlanetOrbit(Planet.JUPITER, new ATime(2000, 1, 1.5, 0.0),
+							   48);
+	}
+
+	/**
+	 * One Step Forward and One Step Backward (the date does not drift)
+	 */
+	@Benchmark
+	public ATime changeDate(ChangeDateState state) {
+		state.atime.changeDate(state.span, ATime.F_INCTIME);
+		state.atime.changeDate(state.span, ATime.F_DECTIME);
+		return state.atime;
+	}
+}
@@ -0,0 +1,61 @@
+/**
+ * JMH Benchmark of the Whole Frame Drawing
+ *
+ * Draws the same frame as OrbitImage into an offscreen image, through
+ * OrbitRenderer.render(BufferedImage).  OrbitRenderer is in the unnamed
+ * package, which named packages cannot import (and JMH benchmarks must
+ * be in a named package), so the benchmark calls it as a
+ * Consumer<BufferedImage>.  Only the setup uses reflection, to create
+ * and set up the renderer; if a method is renamed, the setup throws and
+ * JMH reports the benchmark as failed.
+ */
+package bench;
+
+import java.awt.image.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.openjdk.jmh.annotations.*;
+import astro.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class RenderBench {
+
+	// 0:Sun 1:Object
+	@Param({"0", "1"})
+	public int nCenter;
+
+	@Param({"510x400", "1020x800"})
+	public String strSize;
+
+	private Consumer<BufferedImage> renderer;
+	private BufferedImage offscreen;
+
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setup() throws Exception {
+		Class<?> cls = Class.forName("OrbitRenderer");
+		Object obj = cls.getConstructor(Comet.class, ATime.class)
+			.newInstance(AstroBench.makeComet("ellip"),
+						 new ATime(1986, 2, 9.0, 0.0));
+		cls.getMethod("SelectCenterObject", int.class).invoke(obj, nCenter);
+		cls.getMethod("switchPlanetName", boolean.class).invoke(obj, true);
+		cls.getMethod("switchObjectName", boolean.class).invoke(obj, true);
+		renderer = (Consumer<BufferedImage>)obj;
+		int nX = strSize.indexOf('x');
+		int nWidth  = Integer.parseInt(strSize.substring(0, nX));
+		int nHeight = Integer.parseInt(strSize.substring(nX + 1));
+		offscreen = new BufferedImage(nWidth, nHeight,
+									  BufferedImage.TYPE_INT_RGB);
+	}
+
+	@Benchmark
+	public BufferedImage update() {
+		renderer.accept(offscreen);
+		return offscreen;
+	}
+}